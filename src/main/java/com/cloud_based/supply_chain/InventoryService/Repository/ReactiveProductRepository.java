@@ -0,0 +1,13 @@
+package com.cloud_based.supply_chain.InventoryService.Repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String> {
+    Flux<Product> findByCategory(String category); // Non-blocking variant of ProductRepository.findByCategory
+}
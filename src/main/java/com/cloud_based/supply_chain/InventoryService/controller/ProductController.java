@@ -1,8 +1,20 @@
 package com.cloud_based.supply_chain.InventoryService.controller;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,18 +22,64 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.cloud_based.supply_chain.InventoryService.dto.LowStockEntry;
+import com.cloud_based.supply_chain.InventoryService.dto.ProductImportResult;
+import com.cloud_based.supply_chain.InventoryService.dto.StockAdjustmentRequest;
+import com.cloud_based.supply_chain.InventoryService.dto.StockAdjustmentResult;
+import com.cloud_based.supply_chain.InventoryService.dto.StockAvailability;
+import com.cloud_based.supply_chain.InventoryService.model.InventoryEvent;
 import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.service.InventoryEventLog;
+import com.cloud_based.supply_chain.InventoryService.service.LowStockIndex;
+import com.cloud_based.supply_chain.InventoryService.service.ProductCatalogVersion;
+import com.cloud_based.supply_chain.InventoryService.service.ProductImportService;
 import com.cloud_based.supply_chain.InventoryService.service.ProductService;
+import com.cloud_based.supply_chain.InventoryService.service.ReservationService;
+import com.cloud_based.supply_chain.InventoryService.service.StockService;
+import com.cloud_based.supply_chain.common.dto.CursorPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private InventoryEventLog inventoryEventLog;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductCatalogVersion productCatalogVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // Create a new product
     @PostMapping("/add-product")
     public ResponseEntity<Product> addProduct(@RequestBody Product product) {
@@ -29,6 +87,18 @@ public class ProductController {
         return ResponseEntity.ok(savedProduct);
     }
 
+    // Bulk import products from CSV (with a header row) or NDJSON; the body is parsed as it arrives
+    // and upserted in batches, see ProductImportService
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<ProductImportResult> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        ProductImportResult result = MediaType.parseMediaType(contentType).isCompatibleWith(NDJSON)
+                ? productImportService.importNdjson(reader)
+                : productImportService.importCsv(reader);
+        return ResponseEntity.ok(result);
+    }
+
     // Update an existing product by ID
     @PutMapping("/update-product/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable String id, @RequestBody Product productDetails) {
@@ -36,18 +106,146 @@ public class ProductController {
         return ResponseEntity.ok(updatedProduct);
     }
 
-    // Get all products
+    // Get all products; the ETag is the catalog version, see ProductCatalogVersion
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<Product>> getAllProducts(WebRequest request) {
+        return listResponse(request, productService::getAllProducts);
+    }
+
+    // Get one page of products; pass the returned nextCursor as "after" for the next page
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Product>> getProductsPage(@RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit, WebRequest request) {
+        return listResponse(request, () -> productService.getProductsPage(null, after, clampLimit(limit)));
+    }
+
+    // Stream all products (or one category) as newline-delimited JSON straight from a Mongo cursor
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamProducts(@RequestParam(required = false) String category) {
+        StreamingResponseBody body = outputStream -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try {
+                productService.streamProducts(category, product -> {
+                    try {
+                        writer.write(objectMapper.writeValueAsString(product));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    // Read the inventory event log after a sequence number, oldest first
+    @GetMapping("/events")
+    public ResponseEntity<List<InventoryEvent>> getInventoryEvents(@RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(inventoryEventLog.getEvents(after, clampLimit(limit)));
+    }
+
+    // Get one page of the products at or below their reorder threshold, optionally within a category
+    @GetMapping("/low-stock")
+    public ResponseEntity<CursorPage<LowStockEntry>> getLowStock(@RequestParam(required = false) String category,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(lowStockIndex.getPage(category, after, clampLimit(limit)));
+    }
+
+    // Follow reorder threshold crossings as server-sent events
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStock() {
+        return lowStockIndex.subscribe();
+    }
+
+    // Search product names, categories and descriptions; tokens also match as prefixes, best matches first
+    @GetMapping("/search")
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productService.searchProducts(q, clampLimit(limit)));
     }
 
-    // Get a product by ID
+    // Get a product by ID. The ETag is its version; If-None-Match is checked against a version-only
+    // lookup, so an unchanged product is answered with 304 without being loaded
     @GetMapping("/product-details/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable String id) {
-        Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+    public ResponseEntity<Product> getProductById(@PathVariable String id,
+            @RequestParam(defaultValue = "false") boolean fresh, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Long version = productService.getProductVersion(id);
+            if (version != null && request.checkNotModified(String.valueOf(version))) {
+                return null;
+            }
+        }
+        Product product = productService.getProductById(id, fresh);
+        return ResponseEntity.ok().eTag(product.getVersion() == null ? null : String.valueOf(product.getVersion()))
+                .body(product);
+    }
+
+    // Get several products by ID in one call; fresh=true skips the product cache
+    @PostMapping("/batch")
+    public ResponseEntity<List<Product>> getProductsByIds(@RequestBody List<String> ids,
+            @RequestParam(defaultValue = "false") boolean fresh) {
+        List<Product> products = productService.getProductsByIds(ids, fresh);
+        return ResponseEntity.ok(products);
+    }
+
+    // Atomically apply signed quantity changes to several products (all or nothing)
+    @PostMapping("/adjust-stock")
+    public ResponseEntity<StockAdjustmentResult> adjustStock(@RequestBody StockAdjustmentRequest request) {
+        StockChangeReason reason = request.getReason() == null ? StockChangeReason.ADJUST : request.getReason();
+        List<String> failedProductIds = stockService.adjustQuantities(request.getTxnId(), reason, request.getOrderId(),
+                request.getQuantityDeltas());
+        return ResponseEntity.ok(new StockAdjustmentResult(failedProductIds));
+    }
+
+    // Get available-to-promise and held stock for a product
+    @GetMapping("/availability/{id}")
+    public ResponseEntity<StockAvailability> getAvailability(@PathVariable String id) {
+        return ResponseEntity.ok(stockService.getAvailability(id));
+    }
+
+    // Hold stock for a PENDING order (productId -> quantity)
+    @PostMapping("/reservations/{orderId}")
+    public ResponseEntity<StockAdjustmentResult> holdStock(@PathVariable String orderId,
+            @RequestBody Map<String, Integer> lines) {
+        List<String> failedProductIds = reservationService.hold(orderId, lines);
+        return ResponseEntity.ok(new StockAdjustmentResult(failedProductIds));
+    }
+
+    // Hold stock for several orders at once (orderId -> productId -> quantity), all or nothing
+    @PostMapping("/reservations/batch/{batchId}")
+    public ResponseEntity<StockAdjustmentResult> holdStockBatch(@PathVariable String batchId,
+            @RequestBody Map<String, Map<String, Integer>> linesByOrder) {
+        List<String> failedProductIds = reservationService.holdAll(batchId, linesByOrder);
+        return ResponseEntity.ok(new StockAdjustmentResult(failedProductIds));
+    }
+
+    // Confirm the live holds of several orders; returns the orders that had one
+    @PostMapping("/reservations/batch/{batchId}/confirm")
+    public ResponseEntity<List<String>> confirmHolds(@PathVariable String batchId, @RequestBody List<String> orderIds) {
+        return ResponseEntity.ok(reservationService.confirmAll(batchId, orderIds));
+    }
+
+    // Release the live holds of several orders; returns the orders that had one
+    @PostMapping("/reservations/batch/{batchId}/release")
+    public ResponseEntity<List<String>> releaseHolds(@PathVariable String batchId, @RequestBody List<String> orderIds) {
+        return ResponseEntity.ok(reservationService.releaseAll(batchId, orderIds));
+    }
+
+    // Turn an order's hold into a permanent decrement; false if no live hold exists
+    @PostMapping("/reservations/{orderId}/confirm")
+    public ResponseEntity<Boolean> confirmHold(@PathVariable String orderId) {
+        return ResponseEntity.ok(reservationService.confirm(orderId));
+    }
+
+    // Release an order's hold; false if no live hold exists
+    @DeleteMapping("/reservations/{orderId}")
+    public ResponseEntity<Boolean> releaseHold(@PathVariable String orderId) {
+        return ResponseEntity.ok(reservationService.release(orderId));
     }
 
     // Delete a product by ID
@@ -59,8 +257,29 @@ public class ProductController {
 
     // Get products by category
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        List<Product> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category, WebRequest request) {
+        return listResponse(request, () -> productService.getProductsByCategory(category));
+    }
+
+    // Get one page of a category
+    @GetMapping("/category/{category}/page")
+    public ResponseEntity<CursorPage<Product>> getProductsByCategoryPage(@PathVariable String category,
+            @RequestParam(required = false) String after, @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        return listResponse(request, () -> productService.getProductsPage(category, after, clampLimit(limit)));
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // 304 when the client's ETag is still the catalog version, otherwise the body tagged with it.
+    // The version is read first, so the tag is never newer than the body.
+    private <T> ResponseEntity<T> listResponse(WebRequest request, Supplier<T> body) {
+        String version = productCatalogVersion.current();
+        if (request.checkNotModified(version)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(version).body(body.get());
     }
 }
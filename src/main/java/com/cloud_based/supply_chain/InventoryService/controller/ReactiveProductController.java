@@ -0,0 +1,46 @@
+package com.cloud_based.supply_chain.InventoryService.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cloud_based.supply_chain.InventoryService.Repository.ReactiveProductRepository;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking catalog reads, enabled with the "reactive" profile. The request thread is
+// released while Mongo works; the response is written when the publisher completes.
+@RestController
+@RequestMapping("/api/reactive/products")
+@Profile("reactive")
+public class ReactiveProductController {
+
+    @Autowired
+    private ReactiveProductRepository reactiveProductRepository;
+
+    // Get all products
+    @GetMapping
+    public Flux<Product> getAllProducts() {
+        return reactiveProductRepository.findAll();
+    }
+
+    // Get a product by ID
+    @GetMapping("/product-details/{id}")
+    public Mono<ResponseEntity<Product>> getProductById(@PathVariable String id) {
+        return reactiveProductRepository.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // Get products by category
+    @GetMapping("/category/{category}")
+    public Flux<Product> getProductsByCategory(@PathVariable String category) {
+        return reactiveProductRepository.findByCategory(category);
+    }
+}
@@ -0,0 +1,62 @@
+package com.cloud_based.supply_chain.InventoryService.dto;
+
+public class LowStockEntry {
+
+    private String productId;
+    private String productName;
+    private String category;
+    private int quantity;
+    private int reorderThreshold;
+
+    public LowStockEntry() {
+    }
+
+    public LowStockEntry(String productId, String productName, String category, int quantity, int reorderThreshold) {
+        this.productId = productId;
+        this.productName = productName;
+        this.category = category;
+        this.quantity = quantity;
+        this.reorderThreshold = reorderThreshold;
+    }
+
+    // Getters and Setters
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getReorderThreshold() {
+        return reorderThreshold;
+    }
+
+    public void setReorderThreshold(int reorderThreshold) {
+        this.reorderThreshold = reorderThreshold;
+    }
+}
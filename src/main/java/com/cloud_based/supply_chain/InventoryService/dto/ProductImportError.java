@@ -0,0 +1,32 @@
+package com.cloud_based.supply_chain.InventoryService.dto;
+
+public class ProductImportError {
+
+    private long row; // Data row, 1 for the first after the CSV header or the first NDJSON line
+    private String message;
+
+    public ProductImportError() {
+    }
+
+    public ProductImportError(long row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,56 @@
+package com.cloud_based.supply_chain.InventoryService.dto;
+
+import java.util.Map;
+
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+
+public class StockAdjustmentRequest {
+
+    private String txnId;
+    private Map<String, Integer> quantityDeltas; // productId -> signed quantity change
+    private StockChangeReason reason; // Recorded in the event log; ADJUST when absent
+    private String orderId; // Recorded in the event log when the change is for one order
+
+    public StockAdjustmentRequest() {
+    }
+
+    public StockAdjustmentRequest(String txnId, StockChangeReason reason, String orderId, Map<String, Integer> quantityDeltas) {
+        this.txnId = txnId;
+        this.reason = reason;
+        this.orderId = orderId;
+        this.quantityDeltas = quantityDeltas;
+    }
+
+    // Getters and Setters
+    public String getTxnId() {
+        return txnId;
+    }
+
+    public void setTxnId(String txnId) {
+        this.txnId = txnId;
+    }
+
+    public Map<String, Integer> getQuantityDeltas() {
+        return quantityDeltas;
+    }
+
+    public void setQuantityDeltas(Map<String, Integer> quantityDeltas) {
+        this.quantityDeltas = quantityDeltas;
+    }
+
+    public StockChangeReason getReason() {
+        return reason;
+    }
+
+    public void setReason(StockChangeReason reason) {
+        this.reason = reason;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.cloud_based.supply_chain.InventoryService.dto;
+
+import java.util.List;
+
+public class StockAdjustmentResult {
+
+    private boolean applied;
+    private List<String> failedProductIds; // Products without enough stock, or unknown
+
+    public StockAdjustmentResult() {
+    }
+
+    public StockAdjustmentResult(List<String> failedProductIds) {
+        this.applied = failedProductIds.isEmpty();
+        this.failedProductIds = failedProductIds;
+    }
+
+    // Getters and Setters
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public void setApplied(boolean applied) {
+        this.applied = applied;
+    }
+
+    public List<String> getFailedProductIds() {
+        return failedProductIds;
+    }
+
+    public void setFailedProductIds(List<String> failedProductIds) {
+        this.failedProductIds = failedProductIds;
+    }
+}
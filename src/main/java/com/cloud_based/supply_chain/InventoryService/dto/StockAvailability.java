@@ -0,0 +1,42 @@
+package com.cloud_based.supply_chain.InventoryService.dto;
+
+public class StockAvailability {
+
+    private String productId;
+    private int available; // Units that can still be promised
+    private int reserved;  // Units held for PENDING orders
+
+    public StockAvailability() {
+    }
+
+    public StockAvailability(String productId, int available, int reserved) {
+        this.productId = productId;
+        this.available = available;
+        this.reserved = reserved;
+    }
+
+    // Getters and Setters
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(int available) {
+        this.available = available;
+    }
+
+    public int getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(int reserved) {
+        this.reserved = reserved;
+    }
+}
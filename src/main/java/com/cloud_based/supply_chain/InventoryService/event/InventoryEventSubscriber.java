@@ -0,0 +1,26 @@
+package com.cloud_based.supply_chain.InventoryService.event;
+
+import java.util.List;
+
+import com.cloud_based.supply_chain.InventoryService.model.InventoryEvent;
+
+// In-process consumer of the inventory event log; every bean implementing it is picked up by
+// InventoryEventLog. Events arrive in sequence order and at least once: the offset is stored only
+// after onEvents returns, so a failure or restart delivers the batch again. Handlers must be
+// idempotent, e.g. by remembering the last sequence they applied.
+public interface InventoryEventSubscriber {
+
+    // Key of the stored offset; keep it stable across releases. A new name starts at the oldest
+    // retained event.
+    String getSubscriberName();
+
+    void onEvents(List<InventoryEvent> events);
+
+    // A local subscriber keeps in-memory state on every instance. It is delivered on each instance,
+    // whether or not it dispatches, from an offset kept in memory that starts at the newest event, so
+    // it must load what came before on its own. Other subscribers are delivered by the dispatching
+    // instance only, from the stored offset.
+    default boolean isLocal() {
+        return false;
+    }
+}
@@ -0,0 +1,18 @@
+package com.cloud_based.supply_chain.InventoryService.event;
+
+import java.util.Set;
+
+// Published after the stored stock or catalog data of some products changed. Listeners re-read
+// the products they care about instead of trusting a payload that may already be stale.
+public class StockChangedEvent {
+
+    private final Set<String> productIds;
+
+    public StockChangedEvent(Set<String> productIds) {
+        this.productIds = Set.copyOf(productIds);
+    }
+
+    public Set<String> getProductIds() {
+        return productIds;
+    }
+}
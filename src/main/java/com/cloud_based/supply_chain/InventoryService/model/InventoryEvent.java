@@ -0,0 +1,120 @@
+package com.cloud_based.supply_chain.InventoryService.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// One entry of the append-only inventory event log. The ID is the outbox entry's eventId, so
+// moving the same entry twice cannot create a second event; the sequence orders the log.
+@Document(collection = "inventory_events")
+public class InventoryEvent {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true)
+    private long sequence;
+
+    private String productId;
+
+    private int quantityDelta;
+
+    private int reservedDelta;
+
+    private StockChangeReason reason;
+
+    private String orderId;
+
+    private String txnId;
+
+    @Indexed(expireAfter = "30d") // Retention of the log
+    private Instant occurredAt;
+
+    public InventoryEvent() {
+    }
+
+    public InventoryEvent(String productId, StockOutboxEntry entry) {
+        this.id = entry.getEventId();
+        this.productId = productId;
+        this.quantityDelta = entry.getQuantityDelta();
+        this.reservedDelta = entry.getReservedDelta();
+        this.reason = entry.getReason();
+        this.orderId = entry.getOrderId();
+        this.txnId = entry.getTxnId();
+        this.occurredAt = entry.getOccurredAt();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantityDelta() {
+        return quantityDelta;
+    }
+
+    public void setQuantityDelta(int quantityDelta) {
+        this.quantityDelta = quantityDelta;
+    }
+
+    public int getReservedDelta() {
+        return reservedDelta;
+    }
+
+    public void setReservedDelta(int reservedDelta) {
+        this.reservedDelta = reservedDelta;
+    }
+
+    public StockChangeReason getReason() {
+        return reason;
+    }
+
+    public void setReason(StockChangeReason reason) {
+        this.reason = reason;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getTxnId() {
+        return txnId;
+    }
+
+    public void setTxnId(String txnId) {
+        this.txnId = txnId;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
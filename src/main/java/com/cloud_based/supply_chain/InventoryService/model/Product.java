@@ -1,9 +1,21 @@
 package com.cloud_based.supply_chain.InventoryService.model;
 
+import java.util.List;
+
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Document(collection = "products")
+@CompoundIndexes({
+    @CompoundIndex(name = "category_id", def = "{'category': 1, '_id': 1}"), // Category pages and streams
+    @CompoundIndex(name = "outbox_eventId", def = "{'outbox.eventId': 1}", sparse = true) // Products with undispatched events
+})
 public class Product {
     
     @Id
@@ -11,9 +23,23 @@ public class Product {
     private String productName;
     private String category;
     private double price;
-    private int quantity;
+    private int quantity; // Available to promise
+    private int reserved; // Held for PENDING orders, already taken out of quantity
     private String description;
 
+    @Version
+    private Long version; // Bumped by every write, including stock $inc updates; the product's ETag
+
+    @Indexed(sparse = true)
+    private Integer reorderThreshold; // Replenish once quantity falls to this level; null for no alerts
+
+    @JsonIgnore
+    @Indexed
+    private List<String> pendingTxns; // Stock adjustments in flight, see StockService
+
+    @JsonIgnore
+    private List<StockOutboxEntry> outbox; // Stock changes not yet moved to the event log, see InventoryEventLog
+
     public Product(){}
 
     public Product(String productName, String category, double price, int quantity, String description) {
@@ -65,6 +91,22 @@ public class Product {
         this.quantity = quantity;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public int getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(int reserved) {
+        this.reserved = reserved;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -72,4 +114,28 @@ public class Product {
     public void setDescription(String description) {
         this.description = description;
     }
-}
\ No newline at end of file
+
+    public Integer getReorderThreshold() {
+        return reorderThreshold;
+    }
+
+    public void setReorderThreshold(Integer reorderThreshold) {
+        this.reorderThreshold = reorderThreshold;
+    }
+
+    public List<String> getPendingTxns() {
+        return pendingTxns;
+    }
+
+    public void setPendingTxns(List<String> pendingTxns) {
+        this.pendingTxns = pendingTxns;
+    }
+
+    public List<StockOutboxEntry> getOutbox() {
+        return outbox;
+    }
+
+    public void setOutbox(List<StockOutboxEntry> outbox) {
+        this.outbox = outbox;
+    }
+}
@@ -0,0 +1,12 @@
+package com.cloud_based.supply_chain.InventoryService.model;
+
+// Why a stock change happened, recorded with every inventory event
+public enum StockChangeReason {
+    HOLD,    // Units moved from available to reserved for a PENDING order
+    CONFIRM, // Reserved units of a confirmed order leave the stock
+    RELEASE, // Reserved units go back to available (cancelled, updated or expired hold)
+    REDUCE,  // Units taken directly, e.g. confirming an order whose hold expired
+    RESTORE, // Units given back for a cancelled or deleted CONFIRMED order
+    ADJUST,  // Manual adjustment through the adjust-stock API
+    CATALOG  // Quantity set when a product was created or edited
+}
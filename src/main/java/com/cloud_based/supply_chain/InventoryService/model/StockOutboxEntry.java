@@ -0,0 +1,94 @@
+package com.cloud_based.supply_chain.InventoryService.model;
+
+import java.time.Instant;
+
+import org.bson.types.ObjectId;
+
+// A stock change waiting in Product.outbox. It is pushed by the same update that changes the
+// counters, so the change and its record can never diverge; InventoryEventLog later moves it
+// into the inventory_events collection.
+public class StockOutboxEntry {
+
+    private String eventId;
+
+    private int quantityDelta;
+
+    private int reservedDelta;
+
+    private StockChangeReason reason;
+
+    private String orderId; // Set when the change belongs to a single order
+
+    private String txnId;
+
+    private Instant occurredAt;
+
+    public StockOutboxEntry() {
+    }
+
+    public StockOutboxEntry(int quantityDelta, int reservedDelta, StockChangeReason reason, String orderId, String txnId) {
+        this.eventId = new ObjectId().toHexString();
+        this.quantityDelta = quantityDelta;
+        this.reservedDelta = reservedDelta;
+        this.reason = reason;
+        this.orderId = orderId;
+        this.txnId = txnId;
+        this.occurredAt = Instant.now();
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public int getQuantityDelta() {
+        return quantityDelta;
+    }
+
+    public void setQuantityDelta(int quantityDelta) {
+        this.quantityDelta = quantityDelta;
+    }
+
+    public int getReservedDelta() {
+        return reservedDelta;
+    }
+
+    public void setReservedDelta(int reservedDelta) {
+        this.reservedDelta = reservedDelta;
+    }
+
+    public StockChangeReason getReason() {
+        return reason;
+    }
+
+    public void setReason(StockChangeReason reason) {
+        this.reason = reason;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getTxnId() {
+        return txnId;
+    }
+
+    public void setTxnId(String txnId) {
+        this.txnId = txnId;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
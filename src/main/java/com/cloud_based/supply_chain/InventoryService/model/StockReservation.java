@@ -0,0 +1,94 @@
+package com.cloud_based.supply_chain.InventoryService.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Ledger entry for stock held on behalf of a PENDING order. The held units have already been
+// moved from Product.quantity to Product.reserved; see ReservationService.
+@Document(collection = "stock_reservations")
+@CompoundIndex(name = "status_expiresAt", def = "{'status': 1, 'expiresAt': 1}")
+public class StockReservation {
+
+    public enum Status {
+        HELD,
+        CONFIRMED,
+        RELEASED
+    }
+
+    @Id
+    private String id; // Same as the order ID
+
+    private Map<String, Integer> lines; // productId -> held quantity
+
+    private Status status;
+
+    private Instant expiresAt;
+
+    @Indexed(expireAfterSeconds = 7 * 24 * 60 * 60) // Closed entries are purged after a week
+    private Instant closedAt;
+
+    private String closedBy; // Batch that closed the entry, see ReservationService.closeAll
+
+    public StockReservation() {
+    }
+
+    public StockReservation(String id, Map<String, Integer> lines, Instant expiresAt) {
+        this.id = id;
+        this.lines = lines;
+        this.status = Status.HELD;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Map<String, Integer> getLines() {
+        return lines;
+    }
+
+    public void setLines(Map<String, Integer> lines) {
+        this.lines = lines;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Instant getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(Instant closedAt) {
+        this.closedAt = closedAt;
+    }
+
+    public String getClosedBy() {
+        return closedBy;
+    }
+
+    public void setClosedBy(String closedBy) {
+        this.closedBy = closedBy;
+    }
+}
@@ -0,0 +1,458 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.cloud_based.supply_chain.InventoryService.Repository.ProductRepository;
+import com.cloud_based.supply_chain.InventoryService.dto.StockAvailability;
+import com.cloud_based.supply_chain.InventoryService.event.StockChangedEvent;
+import com.cloud_based.supply_chain.InventoryService.model.InventoryEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.model.StockOutboxEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Memory-speed engine for flash sales. Each product has its own counter, seeded from
+// ProductRepository on first use; a unit of work locks the counters it touches (in product ID
+// order), checks and applies all its changes, and queues one outbox entry per product. Queued
+// entries are flushed to Mongo every "inventory.engine.flush-interval-ms" as one $inc per product,
+// pushing the entries by the same update, so the event log only ever records what reached Mongo.
+//
+// A change is acknowledged only once it is in the StockJournal under "inventory.engine.journal-dir".
+// On start the journal is replayed: entries whose eventId is neither in their product's outbox
+// nor in inventory_events never reached Mongo and are written then, so a crash loses nothing that
+// was acknowledged. A flush that fails is settled the same way before the next one. The counters
+// are authoritative for this instance only: run a single writer when this engine is enabled.
+@Service
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "memory")
+public class InMemoryStockService implements StockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryStockService.class);
+
+    private static final int SETTLE_BATCH_SIZE = 1000; // Products looked up per query when settling
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventory.engine.journal-dir:data/stock-journal}")
+    private String journalDir;
+
+    private final Map<String, StockCounter> counters = new ConcurrentHashMap<>();
+
+    private final Set<String> dirtyProductIds = ConcurrentHashMap.newKeySet();
+
+    // Serializes flushes and evictions, which both write queued entries
+    private final Object flushLock = new Object();
+
+    // Entries of a write that failed; some may have reached Mongo. Guarded by flushLock.
+    private final Map<String, List<StockOutboxEntry>> unsettled = new HashMap<>();
+
+    private StockJournal journal;
+
+    @PostConstruct
+    void start() throws IOException {
+        Gauge.builder("inventory.stock.dirty.counters", dirtyProductIds, Set::size)
+                .description("Products with changes not yet flushed to Mongo")
+                .register(meterRegistry);
+        TimeGauge.builder("inventory.stock.flush.lag", this, TimeUnit.MILLISECONDS, InMemoryStockService::flushLagMillis)
+                .description("Age of the oldest change not yet flushed to Mongo")
+                .register(meterRegistry);
+        journal = new StockJournal(Path.of(journalDir), objectMapper);
+        recover();
+    }
+
+    // Write what an earlier run acknowledged but did not flush, before any counter is seeded
+    private void recover() throws IOException {
+        Map<String, List<StockOutboxEntry>> journaled = new HashMap<>();
+        int entries = 0;
+        for (Map<String, StockOutboxEntry> record : journal.readClosedSegments()) {
+            for (Map.Entry<String, StockOutboxEntry> entry : record.entrySet()) {
+                journaled.computeIfAbsent(entry.getKey(), id -> new ArrayList<>()).add(entry.getValue());
+                entries++;
+            }
+        }
+        if (!journaled.isEmpty()) {
+            Map<String, List<StockOutboxEntry>> missing = notInMongo(journaled);
+            write(missing);
+            logger.info("Recovered the stock journal: {} changes replayed, {} already in Mongo",
+                    count(missing), entries - count(missing));
+        }
+        journal.deleteClosedSegments();
+    }
+
+    @Override
+    public StockAvailability getAvailability(String productId) {
+        StockCounter counter = counters(Set.of(productId)).get(productId);
+        if (counter == null) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+        return new StockAvailability(productId, counter.quantity.get(), counter.reserved.get());
+    }
+
+    @Override
+    public List<String> applyDeltas(String txnId, StockChangeReason reason, String orderId,
+            Map<String, Integer> quantityDeltas, Map<String, Integer> reservedDeltas) {
+        Set<String> productIds = new TreeSet<>(quantityDeltas.keySet());
+        productIds.addAll(reservedDeltas.keySet());
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        while (true) {
+            Map<String, StockCounter> touched = counters(productIds);
+            List<String> unknownProductIds = productIds.stream()
+                    .filter(productId -> !touched.containsKey(productId))
+                    .collect(Collectors.toList());
+            if (!unknownProductIds.isEmpty()) {
+                return unknownProductIds;
+            }
+
+            // Locked in product ID order, so units of work sharing products cannot deadlock
+            List<StockCounter> locked = new ArrayList<>();
+            long record;
+            try {
+                for (String productId : productIds) {
+                    StockCounter counter = touched.get(productId);
+                    counter.lock.lock();
+                    locked.add(counter);
+                }
+                if (locked.stream().anyMatch(counter -> counter.evicted)) {
+                    continue; // Re-seed from the stored document
+                }
+
+                List<String> failedProductIds = productIds.stream()
+                        .filter(productId -> !touched.get(productId).canApply(quantityDeltas.getOrDefault(productId, 0),
+                                reservedDeltas.getOrDefault(productId, 0)))
+                        .collect(Collectors.toList());
+                if (!failedProductIds.isEmpty()) {
+                    return failedProductIds;
+                }
+
+                Map<String, StockOutboxEntry> entries = new HashMap<>();
+                for (String productId : productIds) {
+                    StockOutboxEntry entry = new StockOutboxEntry(quantityDeltas.getOrDefault(productId, 0),
+                            reservedDeltas.getOrDefault(productId, 0), reason, orderId, txnId);
+                    touched.get(productId).apply(entry);
+                    entries.put(productId, entry);
+                }
+                try {
+                    record = journal.append(entries);
+                } catch (IOException e) {
+                    // Still locked, so nothing was flushed yet: the change simply never happened
+                    entries.forEach((productId, entry) -> touched.get(productId).revert(entry));
+                    throw new UncheckedIOException("Could not journal stock change " + txnId, e);
+                }
+                entries.keySet().forEach(productId -> markDirty(productId, touched.get(productId)));
+            } finally {
+                locked.forEach(counter -> counter.lock.unlock());
+            }
+
+            try {
+                journal.sync(record);
+            } catch (IOException e) {
+                // The change is applied and will be flushed, but a crash could lose it: not acknowledged
+                throw new UncheckedIOException("Could not journal stock change " + txnId, e);
+            }
+            return List.of();
+        }
+    }
+
+    // The document was replaced or deleted by a catalog write. Queued changes are folded into the
+    // stored value with one more $inc (a deleted product takes none) before the counter is dropped,
+    // so the next use seeds from a document that has them. Units of work waiting for the counter
+    // meanwhile retry against the new seed.
+    @Override
+    public void evict(String productId) {
+        synchronized (flushLock) {
+            StockCounter counter = counters.get(productId);
+            if (counter == null) {
+                return;
+            }
+            counter.lock.lock();
+            try {
+                List<StockOutboxEntry> events = counter.drain();
+                if (!events.isEmpty()) {
+                    try {
+                        write(Map.of(productId, events));
+                    } catch (RuntimeException e) {
+                        // Keep the counter and its changes; the next flush writes them
+                        counter.pendingEvents.addAll(0, events);
+                        markDirty(productId, counter);
+                        logger.error("Could not fold queued stock changes into product {}, will retry", productId, e);
+                        return;
+                    }
+                }
+                counter.evicted = true;
+                counters.remove(productId, counter);
+                dirtyProductIds.remove(productId);
+            } finally {
+                counter.lock.unlock();
+            }
+        }
+    }
+
+    // Write queued entries behind to Mongo as one unordered bulk of $inc operations. The journal is
+    // rotated first, so once this write and any earlier failed one are settled, every closed
+    // segment is in Mongo and can go.
+    @Scheduled(fixedDelayString = "${inventory.engine.flush-interval-ms:200}")
+    public void flush() {
+        synchronized (flushLock) {
+            if (!unsettled.isEmpty() && !settle()) {
+                return;
+            }
+            try {
+                journal.rotate();
+            } catch (IOException e) {
+                logger.error("Could not rotate the stock journal", e);
+                return;
+            }
+
+            Map<String, List<StockOutboxEntry>> drained = new HashMap<>();
+            for (String productId : new ArrayList<>(dirtyProductIds)) {
+                dirtyProductIds.remove(productId);
+                StockCounter counter = counters.get(productId);
+                if (counter == null) {
+                    continue; // Evicted, which wrote its entries
+                }
+                counter.lock.lock();
+                try {
+                    // Clear the marker before draining so a later change re-marks the counter
+                    counter.dirtySince.set(0);
+                    List<StockOutboxEntry> events = counter.drain();
+                    if (!events.isEmpty()) {
+                        drained.put(productId, events);
+                    }
+                } finally {
+                    counter.lock.unlock();
+                }
+            }
+
+            try {
+                write(drained);
+            } catch (RuntimeException e) {
+                // Part of the bulk may have gone through; the next flush works out which
+                logger.error("Flushing {} stock counters failed, will retry", drained.size(), e);
+                drained.forEach((productId, events) ->
+                        unsettled.computeIfAbsent(productId, id -> new ArrayList<>()).addAll(events));
+                return;
+            }
+            try {
+                journal.deleteClosedSegments();
+            } catch (IOException e) {
+                logger.warn("Could not delete flushed stock journal segments", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    // Write whatever of the failed writes did not reach Mongo; true once nothing is left
+    private boolean settle() {
+        try {
+            write(notInMongo(unsettled));
+            unsettled.clear();
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Stock changes of {} products are still not in Mongo, will retry", unsettled.size(), e);
+            return false;
+        }
+    }
+
+    // The given entries that Mongo does not have. An entry is in Mongo from the $inc that pushed it
+    // into its product's outbox; the event log later copies it into inventory_events under its
+    // eventId before pulling it from the outbox, so the outbox is read first.
+    private Map<String, List<StockOutboxEntry>> notInMongo(Map<String, List<StockOutboxEntry>> eventsByProduct) {
+        Set<String> present = new HashSet<>();
+        List<String> productIds = new ArrayList<>(eventsByProduct.keySet());
+        for (int from = 0; from < productIds.size(); from += SETTLE_BATCH_SIZE) {
+            Query query = new Query(Criteria.where("_id")
+                    .in(productIds.subList(from, Math.min(from + SETTLE_BATCH_SIZE, productIds.size()))));
+            query.fields().include("outbox.eventId");
+            for (Product product : mongoTemplate.find(query, Product.class)) {
+                if (product.getOutbox() != null) {
+                    product.getOutbox().forEach(entry -> present.add(entry.getEventId()));
+                }
+            }
+        }
+        List<String> eventIds = eventsByProduct.values().stream()
+                .flatMap(List::stream)
+                .map(StockOutboxEntry::getEventId)
+                .filter(eventId -> !present.contains(eventId))
+                .collect(Collectors.toList());
+        for (int from = 0; from < eventIds.size(); from += SETTLE_BATCH_SIZE) {
+            Query query = new Query(Criteria.where("_id")
+                    .in(eventIds.subList(from, Math.min(from + SETTLE_BATCH_SIZE, eventIds.size()))));
+            query.fields().include("_id");
+            mongoTemplate.find(query, InventoryEvent.class).forEach(event -> present.add(event.getId()));
+        }
+
+        Map<String, List<StockOutboxEntry>> missing = new HashMap<>();
+        eventsByProduct.forEach((productId, events) -> {
+            List<StockOutboxEntry> left = events.stream()
+                    .filter(entry -> !present.contains(entry.getEventId()))
+                    .collect(Collectors.toList());
+            if (!left.isEmpty()) {
+                missing.put(productId, left);
+            }
+        });
+        return missing;
+    }
+
+    // One unordered bulk: per product the summed deltas of its entries, pushing the entries too
+    private void write(Map<String, List<StockOutboxEntry>> eventsByProduct) {
+        if (eventsByProduct.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        eventsByProduct.forEach((productId, events) -> {
+            int quantityDelta = events.stream().mapToInt(StockOutboxEntry::getQuantityDelta).sum();
+            int reservedDelta = events.stream().mapToInt(StockOutboxEntry::getReservedDelta).sum();
+            Update update = new Update().inc("quantity", quantityDelta).inc("reserved", reservedDelta).inc("version", 1);
+            update.push("outbox").each(events.toArray());
+            bulk.updateOne(new Query(Criteria.where("_id").is(productId)), update);
+        });
+        bulk.execute();
+        Set<String> productIds = new HashSet<>(eventsByProduct.keySet());
+        productCache.invalidateAll(productIds);
+        // Published once Mongo has the change, since listeners re-read the products from there
+        eventPublisher.publishEvent(new StockChangedEvent(productIds));
+    }
+
+    private static int count(Map<String, List<StockOutboxEntry>> eventsByProduct) {
+        return eventsByProduct.values().stream().mapToInt(List::size).sum();
+    }
+
+    // Counters for the given products, seeding the missing ones with a single query
+    private Map<String, StockCounter> counters(Set<String> productIds) {
+        Map<String, StockCounter> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String productId : productIds) {
+            StockCounter counter = counters.get(productId);
+            if (counter != null) {
+                result.put(productId, counter);
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findAllById(missing)) {
+                StockCounter seeded = new StockCounter(product.getQuantity(), product.getReserved());
+                result.put(product.getId(), counters.computeIfAbsent(product.getId(), id -> seeded));
+            }
+        }
+        return result;
+    }
+
+    private void markDirty(String productId, StockCounter counter) {
+        counter.dirtySince.compareAndSet(0, System.currentTimeMillis());
+        dirtyProductIds.add(productId);
+    }
+
+    private double flushLagMillis() {
+        long now = System.currentTimeMillis();
+        long oldest = now;
+        for (String productId : dirtyProductIds) {
+            StockCounter counter = counters.get(productId);
+            if (counter != null) {
+                long since = counter.dirtySince.get();
+                if (since != 0 && since < oldest) {
+                    oldest = since;
+                }
+            }
+        }
+        return now - oldest;
+    }
+
+    private static final class StockCounter {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicInteger quantity; // Written under the lock, read without it
+        private final AtomicInteger reserved;
+        private final AtomicLong dirtySince = new AtomicLong(); // 0 when there is nothing to flush
+        private List<StockOutboxEntry> pendingEvents = new ArrayList<>(); // Guarded by lock
+        private boolean evicted; // Guarded by lock
+
+        private StockCounter(int quantity, int reserved) {
+            this.quantity = new AtomicInteger(quantity);
+            this.reserved = new AtomicInteger(reserved);
+        }
+
+        // Decrements never take a counter below zero
+        private boolean canApply(int quantityDelta, int reservedDelta) {
+            return (quantityDelta >= 0 || quantity.get() + quantityDelta >= 0)
+                    && (reservedDelta >= 0 || reserved.get() + reservedDelta >= 0);
+        }
+
+        private void apply(StockOutboxEntry entry) {
+            quantity.addAndGet(entry.getQuantityDelta());
+            reserved.addAndGet(entry.getReservedDelta());
+            pendingEvents.add(entry);
+        }
+
+        private void revert(StockOutboxEntry entry) {
+            quantity.addAndGet(-entry.getQuantityDelta());
+            reserved.addAndGet(-entry.getReservedDelta());
+            pendingEvents.remove(entry);
+        }
+
+        // Take the queued entries
+        private List<StockOutboxEntry> drain() {
+            List<StockOutboxEntry> events = pendingEvents;
+            pendingEvents = new ArrayList<>();
+            return events;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.cloud_based.supply_chain.InventoryService.event.InventoryEventSubscriber;
+import com.cloud_based.supply_chain.InventoryService.model.InventoryEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockOutboxEntry;
+
+// The append-only inventory event log. Stock changes leave an entry in their product's outbox in
+// the same update (see StockService); every "inventory.events.dispatch-interval-ms" this moves a
+// batch of settled entries into inventory_events, numbering them from a counter document, and then
+// hands new events to each InventoryEventSubscriber from that subscriber's stored offset.
+//
+// Sequence numbers are handed out and written on the dispatching thread before any delivery, so a
+// reader never sees a gap fill in behind it. That needs a single dispatcher: instances with
+// "inventory.events.dispatch-enabled" compete for a lease document, and only the holder moves
+// entries and delivers to stored-offset subscribers. The holder renews the lease before every batch;
+// another instance takes over once it has not been renewed for "inventory.events.lease-ms", which
+// must stay well above the time one batch takes and the clock skew between instances. Local
+// subscribers are delivered on every instance, see InventoryEventSubscriber.isLocal.
+@Service
+public class InventoryEventLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryEventLog.class);
+
+    private static final String SEQUENCE_COLLECTION = "sequences";
+
+    private static final String OFFSET_COLLECTION = "inventory_event_offsets";
+
+    private static final String LEASE_COLLECTION = "leases";
+
+    private static final String LEASE_ID = "InventoryEventDispatcher";
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired(required = false)
+    private List<InventoryEventSubscriber> subscribers = List.of();
+
+    @Value("${inventory.events.dispatch-enabled:true}")
+    private boolean dispatchEnabled;
+
+    @Value("${inventory.events.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.events.lease-ms:30000}")
+    private long leaseMillis;
+
+    private final String instanceId = new ObjectId().toHexString();
+
+    private final Map<String, Long> localOffsets = new ConcurrentHashMap<>();
+
+    private volatile boolean leaseHeld;
+
+    @Scheduled(fixedDelayString = "${inventory.events.dispatch-interval-ms:200}")
+    public void dispatch() {
+        if (dispatchEnabled && holdLease()) {
+            // Walk the products with outbox entries in _id order, so products whose entries must wait
+            // for an unsettled txn cannot hold up the rest
+            String after = null;
+            do {
+                after = moveOutboxBatch(after);
+            } while (after != null && holdLease());
+            for (InventoryEventSubscriber subscriber : subscribers) {
+                if (!subscriber.isLocal()) {
+                    deliver(subscriber);
+                }
+            }
+        }
+        for (InventoryEventSubscriber subscriber : subscribers) {
+            if (subscriber.isLocal()) {
+                deliverLocal(subscriber);
+            }
+        }
+    }
+
+    // Take or renew the dispatcher lease; false while another instance holds it
+    private boolean holdLease() {
+        Date now = new Date();
+        Query query = new Query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(instanceId), Criteria.where("expiresAt").lt(now)));
+        boolean held;
+        try {
+            mongoTemplate.upsert(query, new Update().set("owner", instanceId)
+                    .set("expiresAt", new Date(now.getTime() + leaseMillis)), LEASE_COLLECTION);
+            held = true;
+        } catch (DuplicateKeyException e) {
+            held = false; // The lease exists and belongs to a live dispatcher
+        }
+        if (held != leaseHeld) {
+            logger.info(held ? "Took the inventory event dispatcher lease" : "Lost the inventory event dispatcher lease");
+            leaseHeld = held;
+        }
+        return held;
+    }
+
+    // Events after the given sequence number, in order
+    public List<InventoryEvent> getEvents(long afterSequence, int limit) {
+        Query query = new Query(Criteria.where("sequence").gt(afterSequence))
+                .with(Sort.by("sequence"))
+                .limit(limit);
+        return mongoTemplate.find(query, InventoryEvent.class);
+    }
+
+    // Sequence number of the newest event in the log, 0 while it is empty
+    public long getLatestSequence() {
+        InventoryEvent latest = mongoTemplate.findOne(new Query().with(Sort.by(Sort.Direction.DESC, "sequence")),
+                InventoryEvent.class);
+        return latest == null ? 0 : latest.getSequence();
+    }
+
+    // Move the settled outbox entries of the next batch of products after the given ID. Returns the
+    // ID to continue after, or null once the last batch was handled.
+    private String moveOutboxBatch(String after) {
+        Criteria criteria = Criteria.where("outbox.eventId").exists(true);
+        if (after != null) {
+            criteria = criteria.and("_id").gt(after);
+        }
+        Query query = new Query(criteria).with(Sort.by("_id")).limit(batchSize);
+        query.fields().include("outbox", "pendingTxns");
+        List<Product> products = mongoTemplate.find(query, Product.class);
+        String next = products.size() == batchSize ? products.get(products.size() - 1).getId() : null;
+
+        List<InventoryEvent> events = new ArrayList<>();
+        Map<String, List<String>> eventIdsByProduct = new LinkedHashMap<>();
+        for (Product product : products) {
+            List<String> pendingTxns = product.getPendingTxns() == null ? List.of() : product.getPendingTxns();
+            for (StockOutboxEntry entry : product.getOutbox()) {
+                // Still tagged: the unit of work may yet be compensated, which removes the entry
+                if (pendingTxns.contains(entry.getTxnId())) {
+                    continue;
+                }
+                events.add(new InventoryEvent(product.getId(), entry));
+                eventIdsByProduct.computeIfAbsent(product.getId(), id -> new ArrayList<>()).add(entry.getEventId());
+            }
+        }
+        if (events.isEmpty()) {
+            return next;
+        }
+
+        // Stable sort: entries of one product keep their outbox order
+        events.sort(Comparator.comparing(InventoryEvent::getOccurredAt));
+        long sequence = reserveSequences(events.size()) - events.size();
+        for (InventoryEvent event : events) {
+            event.setSequence(++sequence);
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryEvent.class).insert(events).execute();
+        } catch (BulkOperationException e) {
+            // Entries moved before a crash are moved again; their first copy stays and this one is dropped
+            boolean onlyDuplicates = e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+        }
+
+        BulkOperations cleanup = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        eventIdsByProduct.forEach((productId, eventIds) -> cleanup.updateOne(
+                new Query(Criteria.where("_id").is(productId)),
+                new Update().pull("outbox", new Document("eventId", new Document("$in", eventIds)))));
+        cleanup.execute();
+        return next;
+    }
+
+    // Take the next count numbers from the counter document; returns the last one
+    private long reserveSequences(int count) {
+        Document counter = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(InventoryEvent.class.getSimpleName())),
+                new Update().inc("value", (long) count),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Document.class, SEQUENCE_COLLECTION);
+        return ((Number) counter.get("value")).longValue();
+    }
+
+    // Hand the subscriber everything after its stored offset; the offset only moves after a batch succeeded
+    private void deliver(InventoryEventSubscriber subscriber) {
+        deliver(subscriber, loadOffset(subscriber.getSubscriberName()), offset ->
+                mongoTemplate.upsert(new Query(Criteria.where("_id").is(subscriber.getSubscriberName())),
+                        new Update().set("sequence", offset), OFFSET_COLLECTION));
+    }
+
+    // A local subscriber starts at the newest event when this instance first delivers to it
+    private void deliverLocal(InventoryEventSubscriber subscriber) {
+        long offset = localOffsets.computeIfAbsent(subscriber.getSubscriberName(), name -> getLatestSequence());
+        deliver(subscriber, offset, delivered -> localOffsets.put(subscriber.getSubscriberName(), delivered));
+    }
+
+    private void deliver(InventoryEventSubscriber subscriber, long offset, LongConsumer storeOffset) {
+        while (true) {
+            List<InventoryEvent> events = getEvents(offset, batchSize);
+            if (events.isEmpty()) {
+                return;
+            }
+            try {
+                subscriber.onEvents(events);
+            } catch (RuntimeException e) {
+                logger.warn("Inventory event subscriber {} failed after sequence {}, will retry",
+                        subscriber.getSubscriberName(), offset, e);
+                return;
+            }
+            offset = events.get(events.size() - 1).getSequence();
+            storeOffset.accept(offset);
+            if (events.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private long loadOffset(String subscriberName) {
+        Document stored = mongoTemplate.findById(subscriberName, Document.class, OFFSET_COLLECTION);
+        return stored == null ? 0 : ((Number) stored.get("sequence")).longValue();
+    }
+}
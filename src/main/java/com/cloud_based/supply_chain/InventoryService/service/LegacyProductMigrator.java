@@ -0,0 +1,68 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+
+// Gives products stored before they had a version version 0, one batch per write, so they carry an
+// ETag and take part in the snapshot's version checks. Edits do not wait for it: ProductService
+// versions a legacy product itself before saving it. The job stops once its query comes back empty.
+@Component
+@ConditionalOnProperty(name = "inventory.legacy-migration.enabled", havingValue = "true", matchIfMissing = true)
+public class LegacyProductMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyProductMigrator.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${inventory.legacy-migration.batch-size:500}")
+    private int batchSize;
+
+    private volatile boolean finished;
+
+    @Scheduled(initialDelayString = "${inventory.legacy-migration.initial-delay-ms:30000}",
+            fixedDelayString = "${inventory.legacy-migration.interval-ms:60000}")
+    public void migrate() {
+        if (finished) {
+            return;
+        }
+
+        long migrated = 0;
+        while (true) {
+            Query query = new Query(Criteria.where("version").exists(false)).limit(batchSize);
+            query.fields().include("_id");
+            List<Object> ids = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Product.class))
+                    .stream()
+                    .map(document -> document.get("_id"))
+                    .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                logger.info("Gave {} products their first version, none left", migrated);
+                finished = true;
+                return;
+            }
+
+            long modified = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(ids).and("version").exists(false)),
+                    Update.update("version", 0L), Product.class).getModifiedCount();
+            migrated += modified;
+            if (modified == 0) {
+                return; // The same products would be found again; retried on the next run
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.cloud_based.supply_chain.InventoryService.dto.LowStockEntry;
+import com.cloud_based.supply_chain.InventoryService.event.InventoryEventSubscriber;
+import com.cloud_based.supply_chain.InventoryService.event.StockChangedEvent;
+import com.cloud_based.supply_chain.InventoryService.model.InventoryEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.common.dto.CursorPage;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Products whose quantity is at or below their reorder threshold, kept in memory and ordered by ID.
+// Stock writers publish StockChangedEvent; the IDs are collected and re-read from Mongo in one
+// query every "inventory.low-stock.refresh-interval-ms", so the stock paths never wait on it.
+// Changes made by other instances arrive the same way through the inventory event log, as a local
+// subscriber; a full resync every "inventory.low-stock.resync-interval-ms" (and at startup) covers
+// what happened before this instance started following the log. Every crossing in either direction is pushed to the SSE subscribers.
+// Pushes are queued per subscriber and written on a small pool of sender threads, so a slow client
+// never holds up the scheduler thread that refreshes the index; a subscriber that falls more than
+// "inventory.low-stock.sse-queue-capacity" events behind is disconnected.
+@Component
+public class LowStockIndex implements InventoryEventSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockIndex.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.low-stock.sse-timeout-ms:1800000}")
+    private long sseTimeoutMillis;
+
+    @Value("${inventory.low-stock.sse-threads:2}")
+    private int sseThreads;
+
+    @Value("${inventory.low-stock.sse-queue-capacity:1000}")
+    private int sseQueueCapacity;
+
+    private final NavigableMap<String, LowStockEntry> lowStock = new ConcurrentSkipListMap<>();
+
+    private final Set<String> changedProductIds = ConcurrentHashMap.newKeySet();
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private ExecutorService sendExecutor;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("inventory.low-stock.products", lowStock, Map::size)
+                .description("Products at or below their reorder threshold")
+                .register(meterRegistry);
+        Gauge.builder("inventory.low-stock.subscribers", subscribers, List::size)
+                .description("Open low-stock SSE subscriptions")
+                .register(meterRegistry);
+
+        // At most one drain task per subscriber is queued at a time
+        AtomicInteger threadNumber = new AtomicInteger();
+        sendExecutor = Executors.newFixedThreadPool(sseThreads, runnable -> {
+            Thread thread = new Thread(runnable, "low-stock-sse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        sendExecutor.shutdownNow();
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        changedProductIds.addAll(event.getProductIds());
+    }
+
+    @Override
+    public String getSubscriberName() {
+        return "low-stock-index";
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    // Products are re-read by the next refresh, so seeing an event twice costs nothing
+    @Override
+    public void onEvents(List<InventoryEvent> events) {
+        events.forEach(event -> changedProductIds.add(event.getProductId()));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.low-stock.refresh-interval-ms:500}")
+    public synchronized void refresh() {
+        if (changedProductIds.isEmpty()) {
+            return;
+        }
+        List<String> productIds = new ArrayList<>(changedProductIds);
+        changedProductIds.removeAll(productIds);
+
+        Query query = new Query(Criteria.where("_id").in(productIds));
+        query.fields().include("productName", "category", "quantity", "reorderThreshold");
+        Map<String, Product> products = mongoTemplate.find(query, Product.class).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        productIds.forEach(productId -> update(productId, products.get(productId)));
+    }
+
+    // Rebuild from every product that has a threshold. Synchronized with refresh, which runs on
+    // another scheduler thread, so the two never interleave their updates of one product.
+    @Scheduled(fixedDelayString = "${inventory.low-stock.resync-interval-ms:300000}")
+    public synchronized void resync() {
+        Query query = new Query(Criteria.where("reorderThreshold").ne(null));
+        query.fields().include("productName", "category", "quantity", "reorderThreshold");
+        Set<String> seen = new HashSet<>();
+        try (var products = mongoTemplate.stream(query, Product.class)) {
+            products.forEach(product -> {
+                seen.add(product.getId());
+                update(product.getId(), product);
+            });
+        }
+        new ArrayList<>(lowStock.keySet()).stream()
+                .filter(productId -> !seen.contains(productId))
+                .forEach(productId -> update(productId, null));
+    }
+
+    // One page of low-stock products ordered by ID, optionally within one category
+    public CursorPage<LowStockEntry> getPage(String category, String after, int limit) {
+        Map<String, LowStockEntry> tail = after == null ? lowStock : lowStock.tailMap(after, false);
+        List<LowStockEntry> entries = tail.values().stream()
+                .filter(entry -> category == null || category.equals(entry.getCategory()))
+                .limit(limit + 1)
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (entries.size() > limit) {
+            entries = entries.subList(0, limit);
+            nextCursor = entries.get(limit - 1).getProductId();
+        }
+        return new CursorPage<>(entries, nextCursor);
+    }
+
+    // Server-sent events: "below-threshold" when a product falls to its threshold, "restocked"
+    // when it climbs back above; the data is the product's LowStockEntry
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(sseTimeoutMillis));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    // Product is null when it no longer exists; removal of an entry for that reason, or because
+    // its threshold was cleared, is not reported as a crossing
+    private void update(String productId, Product product) {
+        if (product == null || product.getReorderThreshold() == null) {
+            lowStock.remove(productId);
+            return;
+        }
+
+        LowStockEntry entry = new LowStockEntry(productId, product.getProductName(), product.getCategory(),
+                product.getQuantity(), product.getReorderThreshold());
+        if (product.getQuantity() <= product.getReorderThreshold()) {
+            if (lowStock.put(productId, entry) == null) {
+                publish("below-threshold", entry);
+            }
+        } else if (lowStock.remove(productId) != null) {
+            publish("restocked", entry);
+        }
+    }
+
+    private void publish(String eventName, LowStockEntry entry) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().name(eventName).data(entry));
+        }
+    }
+
+    // One SSE client: events wait in its queue until a sender thread writes them, in order
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (pendingCount.incrementAndGet() > sseQueueCapacity) {
+                drop("fell " + sseQueueCapacity + " events behind", null);
+                return;
+            }
+            pending.add(event);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sendExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drop("could not be scheduled", e);
+            }
+        }
+
+        private void drain() {
+            try {
+                for (SseEmitter.SseEventBuilder event; (event = pending.poll()) != null; ) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                drop("failed", e); // Stays marked as draining, so nothing more is sent
+                return;
+            }
+            draining.set(false);
+            // An event offered after the queue was found empty but before the flag was cleared
+            if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void drop(String reason, Exception cause) {
+            if (subscribers.remove(this)) {
+                logger.debug("Dropping low-stock subscriber that {}", reason, cause);
+                pending.clear();
+                try {
+                    emitter.complete();
+                } catch (IllegalStateException e) {
+                    // Already completed
+                }
+            }
+        }
+    }
+}
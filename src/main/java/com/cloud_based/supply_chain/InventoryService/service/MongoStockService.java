@@ -0,0 +1,199 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.cloud_based.supply_chain.InventoryService.dto.StockAvailability;
+import com.cloud_based.supply_chain.InventoryService.event.StockChangedEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.model.StockOutboxEntry;
+import com.mongodb.bulk.BulkWriteResult;
+
+// Default engine: every change is a guarded write against the product documents
+//
+// A txnId tag only outlives applyDeltas when the caller never saw the unit of work succeed: the
+// process died or lost Mongo between the bulk write and clearing the tag, or in the middle of a
+// compensation. Such a unit of work was reported as failed (or not at all), so sweepStaleTxns
+// compensates whatever it left applied once its tags are "inventory.txn.stale-after-ms" old.
+@Service
+@ConditionalOnProperty(name = "inventory.engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoStockService implements StockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoStockService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.txn.stale-after-ms:60000}")
+    private long staleAfterMillis;
+
+    // Available-to-promise for one product: a single indexed lookup of two fields
+    @Override
+    public StockAvailability getAvailability(String productId) {
+        Query query = new Query(Criteria.where("_id").is(productId));
+        query.fields().include("quantity").include("reserved");
+        Product product = mongoTemplate.findOne(query, Product.class);
+        if (product == null) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+        return new StockAvailability(productId, product.getQuantity(), product.getReserved());
+    }
+
+    // All changes go out as one unordered bulk write. Each change is a guarded $inc: a decrement
+    // only matches when enough units are there, so concurrent callers can never oversell. Applied
+    // documents are tagged with the txnId so that, if any change fails, exactly those can be compensated.
+    // The same update pushes the change's outbox entry; InventoryEventLog leaves entries alone while
+    // their txnId tag is present, so a compensated change never reaches the event log.
+    @Override
+    public List<String> applyDeltas(String txnId, StockChangeReason reason, String orderId,
+            Map<String, Integer> quantityDeltas, Map<String, Integer> reservedDeltas) {
+        Set<String> productIds = new HashSet<>(quantityDeltas.keySet());
+        productIds.addAll(reservedDeltas.keySet());
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, StockOutboxEntry> entries = new HashMap<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (String productId : productIds) {
+            int quantityDelta = quantityDeltas.getOrDefault(productId, 0);
+            int reservedDelta = reservedDeltas.getOrDefault(productId, 0);
+
+            Criteria criteria = Criteria.where("_id").is(productId).and("pendingTxns").ne(txnId);
+            if (quantityDelta < 0) {
+                criteria = criteria.and("quantity").gte(-quantityDelta);
+            }
+            if (reservedDelta < 0) {
+                criteria = criteria.and("reserved").gte(-reservedDelta);
+            }
+            StockOutboxEntry entry = new StockOutboxEntry(quantityDelta, reservedDelta, reason, orderId, txnId);
+            entries.put(productId, entry);
+            bulk.updateOne(new Query(criteria), increments(quantityDelta, reservedDelta)
+                    .push("pendingTxns", txnId).push("outbox", entry));
+        }
+        BulkWriteResult result = bulk.execute();
+        productCache.invalidateAll(productIds);
+
+        if (result.getMatchedCount() == productIds.size()) {
+            clearTxn(txnId, productIds);
+            eventPublisher.publishEvent(new StockChangedEvent(productIds));
+            return List.of();
+        }
+
+        // Partial failure: find out which documents took the change and undo them
+        Set<String> appliedIds = findTagged(txnId, productIds);
+        if (!appliedIds.isEmpty()) {
+            BulkOperations compensation = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            for (String productId : appliedIds) {
+                compensation.updateOne(
+                        new Query(Criteria.where("_id").is(productId).and("pendingTxns").is(txnId)),
+                        increments(-quantityDeltas.getOrDefault(productId, 0), -reservedDeltas.getOrDefault(productId, 0))
+                                .pull("pendingTxns", txnId)
+                                .pull("outbox", new Document("eventId", entries.get(productId).getEventId())));
+            }
+            compensation.execute();
+        }
+
+        return productIds.stream()
+                .filter(productId -> !appliedIds.contains(productId))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    // Undo the changes of units of work whose tag is older than any applyDeltas call can take. Every
+    // undo is conditional on the tag, so a caller that is merely slow, or another instance sweeping
+    // at the same time, cannot have the change undone twice.
+    @Scheduled(initialDelayString = "${inventory.txn.sweep-interval-ms:60000}",
+            fixedDelayString = "${inventory.txn.sweep-interval-ms:60000}")
+    public void sweepStaleTxns() {
+        Instant staleBefore = Instant.now().minusMillis(staleAfterMillis);
+        // Any non-empty tag list; a range on the elements lets the multikey index answer it
+        Query query = new Query(Criteria.where("pendingTxns").gt(""));
+        query.fields().include("pendingTxns", "outbox");
+
+        BulkOperations compensation = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        Set<String> productIds = new HashSet<>();
+        Set<String> txnIds = new HashSet<>();
+        for (Product product : mongoTemplate.find(query, Product.class)) {
+            if (product.getOutbox() == null) {
+                continue;
+            }
+            for (StockOutboxEntry entry : product.getOutbox()) {
+                if (!product.getPendingTxns().contains(entry.getTxnId()) || !entry.getOccurredAt().isBefore(staleBefore)) {
+                    continue;
+                }
+                compensation.updateOne(
+                        new Query(Criteria.where("_id").is(product.getId()).and("pendingTxns").is(entry.getTxnId())),
+                        increments(-entry.getQuantityDelta(), -entry.getReservedDelta())
+                                .pull("pendingTxns", entry.getTxnId())
+                                .pull("outbox", new Document("eventId", entry.getEventId())));
+                productIds.add(product.getId());
+                txnIds.add(entry.getTxnId());
+            }
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        long undone = compensation.execute().getModifiedCount();
+        logger.warn("Compensated {} stock changes of unfinished units of work {}", undone, txnIds);
+        productCache.invalidateAll(productIds);
+        eventPublisher.publishEvent(new StockChangedEvent(productIds));
+    }
+
+    // Counter changes, plus the version bump every visible change of a product needs
+    private Update increments(int quantityDelta, int reservedDelta) {
+        Update update = new Update().inc("version", 1);
+        if (quantityDelta != 0) {
+            update.inc("quantity", quantityDelta);
+        }
+        if (reservedDelta != 0) {
+            update.inc("reserved", reservedDelta);
+        }
+        return update;
+    }
+
+    // IDs among the given products that currently carry the txnId tag
+    private Set<String> findTagged(String txnId, Set<String> productIds) {
+        Query query = new Query(Criteria.where("_id").in(productIds).and("pendingTxns").is(txnId));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Product.class).stream()
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+    }
+
+    // Remove the txnId tag once the whole unit of work has been applied
+    private void clearTxn(String txnId, Set<String> productIds) {
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(productIds).and("pendingTxns").is(txnId)),
+                new Update().pull("pendingTxns", txnId),
+                Product.class);
+    }
+}
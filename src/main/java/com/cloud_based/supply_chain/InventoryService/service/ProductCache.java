@@ -0,0 +1,60 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Bounded read-through cache in front of ProductRepository. Entries are evicted by size and age;
+// hit/miss/eviction statistics are published as "cache.*" metrics with cache=products.
+// Stock-sensitive reads must not use it: quantities here can be as old as the TTL.
+@Component
+public class ProductCache {
+
+    private final Cache<String, Product> cache;
+
+    public ProductCache(@Value("${inventory.product-cache.max-size:10000}") long maxSize,
+            @Value("${inventory.product-cache.ttl-seconds:60}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    // Cached product, or the loader's result (null means not found and is not cached)
+    public Product get(String productId, Function<String, Product> loader) {
+        return cache.get(productId, loader);
+    }
+
+    // Cached products for the given IDs, loading all misses with one call
+    public Map<String, Product> getAll(Collection<String> productIds,
+            Function<Set<? extends String>, Map<String, Product>> loader) {
+        return cache.getAll(productIds, loader);
+    }
+
+    public void put(Product product) {
+        cache.put(product.getId(), product);
+    }
+
+    public void invalidate(String productId) {
+        cache.invalidate(productId);
+    }
+
+    public void invalidateAll(Collection<String> productIds) {
+        cache.invalidateAll(productIds);
+    }
+}
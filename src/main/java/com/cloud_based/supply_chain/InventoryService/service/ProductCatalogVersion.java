@@ -0,0 +1,39 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+// Version of the product collection as a whole, used as the ETag of the product list endpoints so
+// a conditional GET costs two point lookups instead of reading and hashing the list. It combines a
+// counter that catalog writes (add, update, delete, import) bump with the newest inventory event
+// sequence, which follows every stock change once the event log has dispatched it.
+@Component
+public class ProductCatalogVersion {
+
+    private static final String SEQUENCE_COLLECTION = "sequences";
+
+    private static final String COUNTER_ID = "ProductCatalog";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private InventoryEventLog inventoryEventLog;
+
+    public void increment() {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(COUNTER_ID)), new Update().inc("value", 1L),
+                SEQUENCE_COLLECTION);
+    }
+
+    // Read the counter before the list itself, so a tag never claims a newer list than was sent
+    public String current() {
+        Document counter = mongoTemplate.findById(COUNTER_ID, Document.class, SEQUENCE_COLLECTION);
+        long catalog = counter == null ? 0 : ((Number) counter.get("value")).longValue();
+        return catalog + "-" + inventoryEventLog.getLatestSequence();
+    }
+}
@@ -0,0 +1,472 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.cloud_based.supply_chain.InventoryService.dto.ProductImportError;
+import com.cloud_based.supply_chain.InventoryService.dto.ProductImportResult;
+import com.cloud_based.supply_chain.InventoryService.event.StockChangedEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+// Bulk catalog import from CSV (header row first) or NDJSON. The input is read one row at a time and
+// upserted in unordered bulks of "inventory.import.batch-size", so memory stays flat whatever the
+// file size. Rows with an id (which must be an ObjectId) update that product, rows without one add
+// a new product.
+//
+// Each upsert sets the quantity and pushes a CATALOG outbox entry whose delta is computed by Mongo
+// against the stored quantity, so imports reach the inventory event log like any other catalog edit.
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_RECORD_LENGTH = 1 << 20; // Characters; guards against an unterminated quote or a missing newline
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductCatalogVersion productCatalogVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventory.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${inventory.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    // Columns are matched by header name, ignoring case
+    public ProductImportResult importCsv(Reader input) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(input));
+        Import importer = new Import();
+        List<String> header;
+        try {
+            header = csv.next();
+        } catch (IllegalArgumentException e) {
+            importer.fail(0, e.getMessage());
+            return importer.finish();
+        }
+        if (header == null) {
+            return importer.finish();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        long row = 0;
+        while (true) {
+            List<String> record;
+            try {
+                record = csv.next();
+            } catch (IllegalArgumentException e) {
+                // The rest of the input cannot be split into records reliably
+                importer.fail(row + 1, e.getMessage());
+                break;
+            }
+            if (record == null) {
+                break;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            row++;
+            List<String> values = record;
+            importer.add(row, name -> {
+                Integer index = columns.get(name.toLowerCase(Locale.ROOT));
+                return index == null || index >= values.size() ? null : values.get(index);
+            });
+        }
+        return importer.finish();
+    }
+
+    // One JSON object per line; blank lines are skipped
+    public ProductImportResult importNdjson(Reader input) throws IOException {
+        LineReader reader = new LineReader(new BufferedReader(input));
+        Import importer = new Import();
+        long row = 0;
+        while (true) {
+            String line;
+            try {
+                line = reader.next();
+            } catch (IllegalArgumentException e) {
+                // The line was skipped, the next one starts a new record
+                importer.fail(++row, e.getMessage());
+                continue;
+            }
+            if (line == null) {
+                break;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                importer.fail(row, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            if (!node.isObject()) {
+                importer.fail(row, "Expected a JSON object");
+                continue;
+            }
+            importer.add(row, name -> {
+                JsonNode value = node.get(name);
+                return value == null || value.isNull() ? null : value.asText();
+            });
+        }
+        return importer.finish();
+    }
+
+    // State of one import: the pending batch and the running totals
+    private final class Import {
+
+        private final String txnId = "import:" + new ObjectId().toHexString();
+        private final long start = System.nanoTime();
+        private final ProductImportResult result = new ProductImportResult();
+        private final List<ImportRow> batch = new ArrayList<>();
+
+        private void add(long row, Function<String, String> field) {
+            result.setRowsRead(result.getRowsRead() + 1);
+            try {
+                batch.add(ImportRow.parse(row, field));
+            } catch (IllegalArgumentException e) {
+                fail(row, e.getMessage());
+                return;
+            }
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void fail(long row, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new ProductImportError(row, message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            Date now = new Date();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            Set<String> productIds = new LinkedHashSet<>();
+            for (ImportRow row : batch) {
+                bulk.upsert(new Query(Criteria.where("_id").is(row.id)), row.toUpdate(txnId, now));
+                productIds.add(row.id);
+            }
+
+            BulkWriteResult written;
+            Set<Integer> rejected = new HashSet<>();
+            try {
+                written = bulk.execute();
+            } catch (BulkOperationException e) {
+                written = e.getResult();
+                for (BulkWriteError error : e.getErrors()) {
+                    rejected.add(error.getIndex());
+                    fail(batch.get(error.getIndex()).row, error.getMessage());
+                }
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (!rejected.contains(i)) {
+                    productSearchIndex.index(batch.get(i).toProduct());
+                }
+            }
+            productCatalogVersion.increment();
+            result.setInserted(result.getInserted() + written.getUpserts().size());
+            result.setUpdated(result.getUpdated() + written.getMatchedCount());
+            batch.clear();
+
+            // Stored values win over counters and cached copies, as with a single product update
+            productIds.forEach(stockService::evict);
+            productCache.invalidateAll(productIds);
+            eventPublisher.publishEvent(new StockChangedEvent(productIds));
+        }
+
+        private ProductImportResult finish() {
+            flush();
+            long nanos = System.nanoTime() - start;
+            result.setDurationMillis(nanos / 1_000_000);
+            result.setRowsPerSecond(nanos == 0 ? 0 : result.getRowsRead() * 1e9 / nanos);
+            logger.info("Product import {}: {} rows read, {} inserted, {} updated, {} failed in {} ms ({} rows/s)",
+                    txnId, result.getRowsRead(), result.getInserted(), result.getUpdated(), result.getFailed(),
+                    result.getDurationMillis(), Math.round(result.getRowsPerSecond()));
+            return result;
+        }
+    }
+
+    // One validated input row
+    private static final class ImportRow {
+
+        private final long row;
+        private final String id;
+        private final String productName;
+        private final String category;
+        private final double price;
+        private final int quantity;
+        private final String description;
+        private final Integer reorderThreshold;
+        private final boolean hasReorderThreshold; // Without the field an existing threshold is kept
+
+        private ImportRow(long row, String id, String productName, String category, double price, int quantity,
+                String description, Integer reorderThreshold, boolean hasReorderThreshold) {
+            this.row = row;
+            this.id = id;
+            this.productName = productName;
+            this.category = category;
+            this.price = price;
+            this.quantity = quantity;
+            this.description = description;
+            this.reorderThreshold = reorderThreshold;
+            this.hasReorderThreshold = hasReorderThreshold;
+        }
+
+        private static ImportRow parse(long row, Function<String, String> field) {
+            String id = blankToNull(field.apply("id"));
+            if (id != null && !ObjectId.isValid(id)) {
+                // Anything else would be stored as a string _id the rest of the service cannot look up
+                throw new IllegalArgumentException("id must be a 24 character hex ObjectId: " + id);
+            }
+            String productName = blankToNull(field.apply("productName"));
+            if (productName == null) {
+                throw new IllegalArgumentException("productName is required");
+            }
+            double price = parseDouble(field.apply("price"), "price");
+            int quantity = parseInt(field.apply("quantity"), "quantity");
+            String threshold = field.apply("reorderThreshold");
+            Integer reorderThreshold = blankToNull(threshold) == null ? null : parseInt(threshold, "reorderThreshold");
+            return new ImportRow(row, id == null ? new ObjectId().toHexString() : id, productName,
+                    blankToNull(field.apply("category")), price, quantity, blankToNull(field.apply("description")),
+                    reorderThreshold, threshold != null);
+        }
+
+        // The searchable fields, for ProductSearchIndex
+        private Product toProduct() {
+            Product product = new Product(productName, category, price, quantity, description);
+            product.setId(id);
+            return product;
+        }
+
+        // Pipeline update, so the outbox delta can be computed from the stored quantity. Strings are
+        // wrapped in $literal: in a pipeline a value starting with "$" would be read as a field path.
+        // The version is bumped like any other write; new products start at 0, as repository inserts do.
+        private AggregationUpdate toUpdate(String txnId, Date now) {
+            Document outboxEntry = new Document("eventId", literal(new ObjectId().toHexString()))
+                    .append("quantityDelta", new Document("$subtract",
+                            List.of(quantity, new Document("$ifNull", List.of("$quantity", 0)))))
+                    .append("reservedDelta", 0)
+                    .append("reason", literal(StockChangeReason.CATALOG.name()))
+                    .append("txnId", literal(txnId))
+                    .append("occurredAt", now);
+            Document set = new Document("productName", literal(productName))
+                    .append("category", literal(category))
+                    .append("price", price)
+                    .append("description", literal(description))
+                    .append("reserved", new Document("$ifNull", List.of("$reserved", 0)))
+                    .append("outbox", new Document("$concatArrays", List.of(
+                            new Document("$ifNull", List.of("$outbox", List.of())), List.of(outboxEntry))))
+                    .append("quantity", quantity)
+                    .append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", -1)), 1)));
+            if (hasReorderThreshold) {
+                set.append("reorderThreshold", reorderThreshold);
+            }
+            return AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+        }
+
+        private static Document literal(String value) {
+            return new Document("$literal", value);
+        }
+
+        private static String blankToNull(String value) {
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+
+        private static double parseDouble(String value, String name) {
+            double parsed;
+            try {
+                parsed = Double.parseDouble(requireValue(value, name));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a number: " + value);
+            }
+            if (!(parsed >= 0) || Double.isInfinite(parsed)) {
+                throw new IllegalArgumentException(name + " must be zero or more: " + value);
+            }
+            return parsed;
+        }
+
+        private static int parseInt(String value, String name) {
+            int parsed;
+            try {
+                parsed = Integer.parseInt(requireValue(value, name));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a whole number: " + value);
+            }
+            if (parsed < 0) {
+                throw new IllegalArgumentException(name + " must be zero or more: " + value);
+            }
+            return parsed;
+        }
+
+        private static String requireValue(String value, String name) {
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException(name + " is required");
+            }
+            return value.trim();
+        }
+    }
+
+    // RFC 4180 records: quoted fields may hold commas, line breaks and "" for a quote
+    static final class CsvReader {
+
+        private final BufferedReader reader;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        // The next record, or null at the end of the input
+        List<String> next() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean read = false;
+            int length = 0;
+            for (int c; (c = reader.read()) != -1; ) {
+                read = true;
+                if (++length > MAX_RECORD_LENGTH) {
+                    throw new IllegalArgumentException("Record longer than " + MAX_RECORD_LENGTH + " characters");
+                }
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (following != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (!read) {
+                return null;
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    // Lines of at most MAX_RECORD_LENGTH characters, without the line break
+    static final class LineReader {
+
+        private final BufferedReader reader;
+
+        LineReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        // The next line, or null at the end of the input. A longer line is read to its end and
+        // dropped, so the following call returns the line after it.
+        String next() throws IOException {
+            StringBuilder line = new StringBuilder();
+            boolean read = false;
+            boolean tooLong = false;
+            for (int c; (c = reader.read()) != -1; ) {
+                read = true;
+                if (c == '\n') {
+                    break;
+                }
+                if (tooLong) {
+                    continue;
+                }
+                if (line.length() >= MAX_RECORD_LENGTH) {
+                    tooLong = true;
+                    line.setLength(0);
+                    continue;
+                }
+                line.append((char) c);
+            }
+            if (tooLong) {
+                throw new IllegalArgumentException("Record longer than " + MAX_RECORD_LENGTH + " characters");
+            }
+            if (!read) {
+                return null;
+            }
+            int end = line.length();
+            if (end > 0 && line.charAt(end - 1) == '\r') {
+                line.setLength(end - 1);
+            }
+            return line.toString();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+// In-memory inverted index over product name, category and description. It is built at startup,
+// pages of products being tokenized in parallel on "inventory.search.build-threads" threads, kept
+// current by ProductService (and the bulk import) on every add, update and delete, and rebuilt every
+// "inventory.search.resync-interval-ms" to pick up edits made by other instances.
+//
+// Every query token must match (exactly or as a prefix) a term of the product. A product scores
+// the sum over the query tokens of its best matching term's field weight times the term's IDF;
+// prefix matches count half, so "lap" finds "laptop" but ranks below an exact "lap".
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final int NAME_WEIGHT = 3;
+
+    private static final int CATEGORY_WEIGHT = 2;
+
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int MIN_PREFIX_LENGTH = 2; // Shorter tokens only match whole terms
+
+    private static final int MAX_PREFIX_EXPANSIONS = 200; // Terms looked at for one prefix token
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.search.build-threads:4}")
+    private int buildThreads;
+
+    @Value("${inventory.search.build-batch-size:1000}")
+    private int buildBatchSize;
+
+    private volatile Index index = new Index();
+
+    private Set<String> changedDuringRebuild; // Non-null while a rebuild runs, guarded by this
+
+    @PostConstruct
+    void build() {
+        Gauge.builder("inventory.search.products", this, search -> search.index.termsByProduct.size())
+                .description("Products in the search index")
+                .register(meterRegistry);
+        Gauge.builder("inventory.search.terms", this, search -> search.index.postings.size())
+                .description("Distinct terms in the search index")
+                .register(meterRegistry);
+        resync();
+    }
+
+    // Index the product, replacing what was indexed for it before
+    public synchronized void index(Product product) {
+        index.put(product.getId(), termsOf(product));
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(product.getId());
+        }
+    }
+
+    public synchronized void remove(String productId) {
+        index.remove(productId);
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(productId);
+        }
+    }
+
+    // IDs of the best matching products, best first
+    public List<String> search(String query, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        Index current = index;
+        int productCount = Math.max(1, current.termsByProduct.size());
+        Map<String, Double> scores = null;
+        for (String token : tokens) {
+            Map<String, Double> tokenScores = new HashMap<>();
+            for (Map.Entry<String, Map<String, Integer>> term : current.matchingTerms(token).entrySet()) {
+                double idf = Math.log(1 + (double) productCount / term.getValue().size());
+                double factor = term.getKey().equals(token) ? 1.0 : 0.5;
+                term.getValue().forEach((productId, weight) ->
+                        tokenScores.merge(productId, weight * idf * factor, Math::max));
+            }
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                // Products must match every token
+                Map<String, Double> previous = scores;
+                scores = new HashMap<>();
+                for (Map.Entry<String, Double> score : tokenScores.entrySet()) {
+                    Double earlier = previous.get(score.getKey());
+                    if (earlier != null) {
+                        scores.put(score.getKey(), earlier + score.getValue());
+                    }
+                }
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Comparator<Map.Entry<String, Double>> ranking = Map.Entry.<String, Double>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(ranking.reversed());
+        for (Map.Entry<String, Double> score : scores.entrySet()) {
+            best.add(score);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        List<String> productIds = new ArrayList<>(ranked.size());
+        ranked.forEach(score -> productIds.add(score.getKey()));
+        return productIds;
+    }
+
+    // Rebuild from every product and swap the new index in. Changes made while it was built are
+    // copied over from the old index, which received them too.
+    @Scheduled(initialDelayString = "${inventory.search.resync-interval-ms:600000}",
+            fixedDelayString = "${inventory.search.resync-interval-ms:600000}")
+    public void resync() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        Index rebuilt = new Index();
+        ExecutorService executor = Executors.newFixedThreadPool(buildThreads);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            String after = null;
+            while (true) {
+                List<Product> page = readPage(after);
+                if (page.isEmpty()) {
+                    break;
+                }
+                futures.add(CompletableFuture.runAsync(
+                        () -> page.forEach(product -> rebuilt.put(product.getId(), termsOf(product))), executor));
+                if (page.size() < buildBatchSize) {
+                    break;
+                }
+                after = page.get(page.size() - 1).getId();
+            }
+            futures.forEach(CompletableFuture::join);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+
+        synchronized (this) {
+            Index previous = index;
+            for (String productId : changedDuringRebuild) {
+                Map<String, Integer> terms = previous.termsByProduct.get(productId);
+                if (terms == null) {
+                    rebuilt.remove(productId);
+                } else {
+                    rebuilt.put(productId, terms);
+                }
+            }
+            changedDuringRebuild = null;
+            index = rebuilt;
+        }
+        logger.info("Built the product search index: {} products, {} terms in {} ms",
+                rebuilt.termsByProduct.size(), rebuilt.postings.size(), System.currentTimeMillis() - start);
+    }
+
+    private List<Product> readPage(String after) {
+        Criteria criteria = after == null ? new Criteria() : Criteria.where("_id").gt(after);
+        Query query = new Query(criteria).with(Sort.by("_id")).limit(buildBatchSize);
+        query.fields().include("productName", "category", "description");
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    // Term weights of a product: the sum of the weights of the fields the term occurs in
+    private static Map<String, Integer> termsOf(Product product) {
+        Map<String, Integer> terms = new HashMap<>();
+        addField(terms, product.getProductName(), NAME_WEIGHT);
+        addField(terms, product.getCategory(), CATEGORY_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        return terms;
+    }
+
+    private static void addField(Map<String, Integer> terms, String value, int weight) {
+        for (String term : new HashSet<>(tokenize(value))) {
+            terms.merge(term, weight, Integer::sum);
+        }
+    }
+
+    // Lower case, accents removed, split on anything that is not a letter or digit
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Postings by term, plus each product's terms so an update or delete can take them out again
+    private static final class Index {
+
+        private final ConcurrentSkipListMap<String, Map<String, Integer>> postings = new ConcurrentSkipListMap<>();
+
+        private final Map<String, Map<String, Integer>> termsByProduct = new ConcurrentHashMap<>();
+
+        // Only called from one thread at a time per product
+        private void put(String productId, Map<String, Integer> terms) {
+            remove(productId);
+            termsByProduct.put(productId, terms);
+            terms.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(productId, weight));
+        }
+
+        private void remove(String productId) {
+            Map<String, Integer> terms = termsByProduct.remove(productId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms.keySet()) {
+                postings.computeIfPresent(term, (key, products) -> {
+                    products.remove(productId);
+                    return products.isEmpty() ? null : products;
+                });
+            }
+        }
+
+        // The token's own postings, and those of the terms it is a prefix of
+        private Map<String, Map<String, Integer>> matchingTerms(String token) {
+            if (token.length() < MIN_PREFIX_LENGTH) {
+                Map<String, Integer> exact = postings.get(token);
+                return exact == null ? Map.of() : Map.of(token, exact);
+            }
+            NavigableMap<String, Map<String, Integer>> range =
+                    postings.subMap(token, true, token + Character.MAX_VALUE, false);
+            Map<String, Map<String, Integer>> terms = new HashMap<>();
+            for (Map.Entry<String, Map<String, Integer>> term : range.entrySet()) {
+                if (terms.size() >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                terms.put(term.getKey(), term.getValue());
+            }
+            return terms;
+        }
+    }
+}
@@ -1,41 +1,130 @@
 package com.cloud_based.supply_chain.InventoryService.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import com.cloud_based.supply_chain.InventoryService.Repository.ProductRepository;
+import com.cloud_based.supply_chain.InventoryService.event.StockChangedEvent;
 import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.model.StockOutboxEntry;
+import com.cloud_based.supply_chain.common.dto.CursorPage;
 
 @Service
 public class ProductService {
 
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    private ProductSnapshot productSnapshot;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductCatalogVersion productCatalogVersion;
+
     // Method to add a new product
     public Product addProduct(Product product) {
-        return productRepository.save(product);
+        product.setOutbox(null);
+        product.setVersion(null);
+        recordCatalogChange(product, product.getQuantity());
+        Product savedProduct = productRepository.save(product);
+        productCatalogVersion.increment();
+        productSearchIndex.index(savedProduct);
+        eventPublisher.publishEvent(new StockChangedEvent(Set.of(savedProduct.getId())));
+        return savedProduct;
     }
 
-    // Method to update an existing product
+    // Method to update an existing product. The save is conditional on the version that was read,
+    // so a stock change landing in between is not overwritten; the edit is then redone on a fresh read.
     public Product updateProduct(String id, Product productDetails) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tryUpdateProduct(id, productDetails);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Product tryUpdateProduct(String id, Product productDetails) {
         Optional<Product> productOpt = productRepository.findById(id);
         if (productOpt.isPresent()) {
             Product product = productOpt.get();
+            if (product.getVersion() == null) {
+                // Stored before products had a version; saved as it is, the repository would try to
+                // insert it again. Give it version 0 unless another write got there first, in which
+                // case the save below fails on the version and the edit is redone.
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id).and("version").exists(false)),
+                        Update.update("version", 0L), Product.class);
+                product.setVersion(0L);
+            }
+            recordCatalogChange(product, productDetails.getQuantity() - product.getQuantity());
             product.setProductName(productDetails.getProductName());
             product.setCategory(productDetails.getCategory());
             product.setPrice(productDetails.getPrice());
             product.setQuantity(productDetails.getQuantity());
             product.setDescription(productDetails.getDescription());
-            return productRepository.save(product);
+            product.setReorderThreshold(productDetails.getReorderThreshold());
+            Product savedProduct = productRepository.save(product);
+            productCatalogVersion.increment();
+            stockService.evict(id);
+            productCache.invalidate(id);
+            productSearchIndex.index(savedProduct);
+            eventPublisher.publishEvent(new StockChangedEvent(Set.of(id)));
+            return savedProduct;
         } else {
             throw new RuntimeException("Product not found with id: " + id);
         }
     }
 
+    // Queue the event for a catalog add or edit; it is stored by the same save. Edits that leave the
+    // quantity alone are recorded too, so log readers also learn about price and category changes.
+    // An entry that the event log takes in the meantime is saved again, which it ignores by eventId.
+    private void recordCatalogChange(Product product, int quantityDelta) {
+        List<StockOutboxEntry> outbox = product.getOutbox() == null ? new ArrayList<>() : new ArrayList<>(product.getOutbox());
+        outbox.add(new StockOutboxEntry(quantityDelta, 0, StockChangeReason.CATALOG, null, "catalog:" + new ObjectId().toHexString()));
+        product.setOutbox(outbox);
+    }
+
     // Method to get all products
     public List<Product> getAllProducts() {
         return productRepository.findAll();
@@ -43,17 +132,116 @@ public class ProductService {
 
     // Method to get a product by ID
     public Product getProductById(String id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        return getProductById(id, false);
+    }
+
+    // Method to get a product by ID; stock-sensitive callers bypass the cache
+    public Product getProductById(String id, boolean bypassCache) {
+        Product product = bypassCache
+                ? productRepository.findById(id).orElse(null)
+                : productCache.get(id, this::loadProduct);
+        if (product == null) {
+            throw new RuntimeException("Product not found with id: " + id);
+        }
+        return product;
+    }
+
+    // Method to get the current version of a product without loading it; null when it does not exist
+    public Long getProductVersion(String id) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("version");
+        Product product = mongoTemplate.findOne(query, Product.class);
+        return product == null ? null : product.getVersion();
+    }
+
+    // Method to get several products in one query; unknown IDs are simply absent from the result
+    public List<Product> getProductsByIds(List<String> ids) {
+        return getProductsByIds(ids, false);
+    }
+
+    // Method to get several products; stock-sensitive callers bypass the cache
+    public List<Product> getProductsByIds(List<String> ids, boolean bypassCache) {
+        if (bypassCache) {
+            return productRepository.findAllById(ids);
+        }
+        return new ArrayList<>(productCache.getAll(ids, this::loadProducts).values());
+    }
+
+    // Cache loader: the warm-start snapshot when it has the product, Mongo otherwise
+    private Product loadProduct(String productId) {
+        Product product = productSnapshot == null ? null : productSnapshot.get(productId);
+        return product != null ? product : productRepository.findById(productId).orElse(null);
+    }
+
+    private Map<String, Product> loadProducts(Set<? extends String> productIds) {
+        Map<String, Product> products = productSnapshot == null ? new HashMap<>() : productSnapshot.getAll(productIds);
+        List<String> missing = productIds.stream()
+                .filter(productId -> !products.containsKey(productId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            products.putAll(productRepository.findAllById(missing).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity())));
+        }
+        return products;
     }
 
     // Method to delete a product
     public void deleteProduct(String id) {
         productRepository.deleteById(id);
+        productCatalogVersion.increment();
+        stockService.evict(id);
+        productCache.invalidate(id);
+        productSearchIndex.remove(id);
+        eventPublisher.publishEvent(new StockChangedEvent(Set.of(id)));
+    }
+
+    // Method to search product names, categories and descriptions; best matches first
+    public List<Product> searchProducts(String query, int limit) {
+        List<String> rankedIds = productSearchIndex.search(query, limit);
+        Map<String, Product> products = getProductsByIds(rankedIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        // Products deleted by another instance since the index was built are left out
+        return rankedIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     // Method to find products by category
     public List<Product> getProductsByCategory(String category) {
         return productRepository.findByCategory(category);
     }
+
+    // Method to get one page of products ordered by ID, optionally within a category.
+    // Pages seek on _id (or the category/_id index), so every page costs the same.
+    public CursorPage<Product> getProductsPage(String category, String after, int limit) {
+        Query query = pageQuery(category, after).limit(limit + 1);
+        List<Product> products = mongoTemplate.find(query, Product.class);
+
+        String nextCursor = null;
+        if (products.size() > limit) {
+            products = products.subList(0, limit);
+            nextCursor = products.get(limit - 1).getId();
+        }
+        return new CursorPage<>(products, nextCursor);
+    }
+
+    // Method to stream products from a Mongo cursor, optionally within a category, without
+    // holding the result in memory
+    public void streamProducts(String category, Consumer<Product> consumer) {
+        try (Stream<Product> products = mongoTemplate.stream(pageQuery(category, null), Product.class)) {
+            products.forEach(consumer);
+        }
+    }
+
+    private Query pageQuery(String category, String after) {
+        Criteria criteria = new Criteria();
+        if (category != null) {
+            criteria = criteria.and("category").is(category);
+        }
+        if (after != null) {
+            criteria = criteria.and("_id").gt(after);
+        }
+        return new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id"));
+    }
 }
@@ -0,0 +1,445 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.cloud_based.supply_chain.InventoryService.event.StockChangedEvent;
+import com.cloud_based.supply_chain.InventoryService.model.InventoryEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// In-memory copy of the product read fields, written every "inventory.snapshot.write-interval-ms"
+// (and on shutdown) to a compact binary file that a starting instance maps and loads before taking
+// traffic, so the ProductCache misses of a fresh deploy are answered from memory instead of Mongo.
+//
+// Every entry carries the product's version, and the file the event log sequence the entries are
+// current as of. The products named by the events since the snapshot's sequence are re-read from
+// Mongo in batches before the loaded entries are served, and from then on the log is followed every
+// "inventory.snapshot.catch-up-interval-ms". Re-reading makes
+// catch-up idempotent; deletes by other instances, which leave no event, are picked up by the full
+// resync every "inventory.snapshot.resync-interval-ms". Like the cache, it is not for stock-sensitive reads.
+@Component
+@ConditionalOnProperty(name = "inventory.snapshot.enabled", havingValue = "true")
+public class ProductSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSnapshot.class);
+
+    private static final int MAGIC = 0x50534E50; // "PSNP"
+
+    private static final int FORMAT = 2; // 2: entries carry the product version instead of a log sequence
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private InventoryEventLog inventoryEventLog;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.snapshot.path:${java.io.tmpdir}/product-snapshot.bin}")
+    private String snapshotPath;
+
+    @Value("${inventory.snapshot.max-age-minutes:1440}")
+    private long maxAgeMinutes;
+
+    @Value("${inventory.snapshot.batch-size:500}")
+    private int batchSize;
+
+    private volatile Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded; // False until a snapshot was loaded or built; reads fall through until then
+
+    private long sequence; // Event log sequence the entries are current as of
+
+    private long waitingAtSequence = -1; // First event after a gap that was seen once, see contiguousEvents
+
+    private final Set<String> changedProductIds = ConcurrentHashMap.newKeySet();
+
+    private volatile long loadMillis = -1;
+
+    private volatile long warmUpMillis = -1; // JVM start to first completed catch-up
+
+    private final Object writeLock = new Object(); // Keeps an older copy from being renamed over a newer one
+
+    @PostConstruct
+    void load() {
+        Gauge.builder("inventory.snapshot.products", this, snapshot -> snapshot.entries.size())
+                .description("Products held by the product snapshot")
+                .register(meterRegistry);
+        TimeGauge.builder("inventory.snapshot.load.time", this, TimeUnit.MILLISECONDS, snapshot -> snapshot.loadMillis)
+                .description("Time taken to load the snapshot file at startup, -1 when none was loaded")
+                .register(meterRegistry);
+        TimeGauge.builder("inventory.snapshot.warmup.time", this, TimeUnit.MILLISECONDS, snapshot -> snapshot.warmUpMillis)
+                .description("Time from JVM start until the snapshot had caught up with the event log")
+                .register(meterRegistry);
+
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            logger.info("No product snapshot at {}, it will be built from Mongo", path);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Map<String, Entry> read = new ConcurrentHashMap<>();
+        long readSequence;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                logger.warn("Ignoring product snapshot {} in an unknown format", path);
+                return;
+            }
+            readSequence = buffer.getLong();
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - buffer.getLong());
+            if (age.toMinutes() > maxAgeMinutes) {
+                logger.info("Ignoring product snapshot {} taken {} minutes ago", path, age.toMinutes());
+                return;
+            }
+            for (int count = buffer.getInt(); count > 0; count--) {
+                Entry entry = Entry.read(buffer);
+                read.put(entry.id, entry);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable product snapshot {}", path, e);
+            return;
+        }
+
+        loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Loaded {} products from snapshot {} (event sequence {}) in {} ms",
+                read.size(), path, readSequence, loadMillis);
+
+        // Served only once caught up, so reads never see what changed while the instance was down
+        synchronized (this) {
+            entries = read;
+            sequence = readSequence;
+            try {
+                followLog();
+            } catch (RuntimeException e) {
+                logger.warn("Catching up the product snapshot {} failed, it will be rebuilt from Mongo", path, e);
+                return;
+            }
+            loaded = true;
+        }
+    }
+
+    // The product as of the snapshot, or null when it is not held (yet)
+    public Product get(String productId) {
+        Entry entry = loaded ? entries.get(productId) : null;
+        return entry == null ? null : entry.toProduct();
+    }
+
+    // The held products among the given IDs, keyed by ID
+    public Map<String, Product> getAll(Collection<? extends String> productIds) {
+        Map<String, Product> products = new HashMap<>();
+        if (loaded) {
+            Map<String, Entry> current = entries;
+            for (String productId : productIds) {
+                Entry entry = current.get(productId);
+                if (entry != null) {
+                    products.put(productId, entry.toProduct());
+                }
+            }
+        }
+        return products;
+    }
+
+    // Changes made through this instance, re-read with the next catch-up without waiting for the log
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        changedProductIds.addAll(event.getProductIds());
+    }
+
+    // Re-read the products named by new events, and those changed locally
+    @Scheduled(fixedDelayString = "${inventory.snapshot.catch-up-interval-ms:1000}")
+    public synchronized void catchUp() {
+        if (!loaded) {
+            resync();
+        }
+        followLog();
+    }
+
+    // Re-read what changed since the current sequence; called holding this
+    private void followLog() {
+        Set<String> productIds = new HashSet<>(changedProductIds);
+        changedProductIds.removeAll(productIds);
+        int eventCount = 0;
+        while (true) {
+            List<InventoryEvent> events = inventoryEventLog.getEvents(sequence, batchSize);
+            int usable = contiguousEvents(events);
+            for (InventoryEvent event : events.subList(0, usable)) {
+                productIds.add(event.getProductId());
+            }
+            if (usable > 0) {
+                sequence = events.get(usable - 1).getSequence();
+                eventCount += usable;
+            }
+            if (usable < events.size() || events.size() < batchSize) {
+                break;
+            }
+        }
+        refresh(productIds);
+
+        if (warmUpMillis < 0) {
+            warmUpMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            logger.info("Product snapshot caught up with {} events ({} products re-read) {} ms after JVM start",
+                    eventCount, productIds.size(), warmUpMillis);
+        }
+    }
+
+    // Rebuild from every product; the first run is at startup only when there was no usable snapshot
+    @Scheduled(initialDelayString = "${inventory.snapshot.resync-interval-ms:600000}",
+            fixedDelayString = "${inventory.snapshot.resync-interval-ms:600000}")
+    public synchronized void resync() {
+        // Taken before the scan: every later change is in the log after it, or already in what is read
+        long latest = inventoryEventLog.getLatestSequence();
+        Map<String, Entry> rebuilt = new ConcurrentHashMap<>();
+        try (var products = mongoTemplate.stream(readQuery(new Criteria()), Product.class)) {
+            products.forEach(product -> rebuilt.put(product.getId(), new Entry(product)));
+        }
+        entries = rebuilt;
+        sequence = latest;
+        loaded = true;
+        logger.info("Rebuilt the product snapshot from {} products at event sequence {}", rebuilt.size(), latest);
+    }
+
+    @Scheduled(initialDelayString = "${inventory.snapshot.write-interval-ms:60000}",
+            fixedDelayString = "${inventory.snapshot.write-interval-ms:60000}")
+    public void write() {
+        synchronized (writeLock) {
+            List<Entry> current;
+            long currentSequence;
+            synchronized (this) {
+                if (!loaded) {
+                    return;
+                }
+                current = new ArrayList<>(entries.values());
+                currentSequence = sequence;
+            }
+            writeFile(current, currentSequence);
+        }
+    }
+
+    // The entries are copied under the same lock catch-up holds, so they are all current as of the sequence
+    private void writeFile(List<Entry> current, long currentSequence) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * current.size() + 32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(currentSequence);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(current.size());
+            for (Entry entry : current) {
+                entry.write(out);
+            }
+            out.flush();
+            writeAtomically(Paths.get(snapshotPath), bytes.toByteArray());
+        } catch (IOException e) {
+            logger.warn("Writing the product snapshot to {} failed", snapshotPath, e);
+        }
+    }
+
+    @PreDestroy
+    void writeOnShutdown() {
+        write();
+    }
+
+    // Write next to the target and rename over it, so a reader never maps a half-written file
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, content.length);
+                buffer.put(content);
+                buffer.force();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Number of leading events that follow on from the current sequence without a gap. A gap is
+    // usually an insert of the same unordered bulk still landing, so it is waited on for one poll;
+    // one that is still there a poll later is an event dropped as a duplicate, and is skipped.
+    private int contiguousEvents(List<InventoryEvent> events) {
+        long expected = sequence + 1;
+        for (int i = 0; i < events.size(); i++) {
+            long eventSequence = events.get(i).getSequence();
+            if (eventSequence != expected) {
+                if (waitingAtSequence != eventSequence) {
+                    waitingAtSequence = eventSequence;
+                    return i;
+                }
+                waitingAtSequence = -1;
+            }
+            expected = eventSequence + 1;
+        }
+        return events.size();
+    }
+
+    // Re-read the given products in batches; those that no longer exist are dropped
+    private void refresh(Set<String> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Map<String, Product> products = new HashMap<>();
+            mongoTemplate.find(readQuery(Criteria.where("_id").in(batch)), Product.class)
+                    .forEach(product -> products.put(product.getId(), product));
+            for (String productId : batch) {
+                Product product = products.get(productId);
+                if (product == null) {
+                    entries.remove(productId);
+                } else {
+                    entries.put(productId, new Entry(product));
+                }
+            }
+        }
+        // Changes made by other instances would otherwise stay in the cache until its TTL
+        productCache.invalidateAll(productIds);
+    }
+
+    private static Query readQuery(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include("productName", "category", "price", "quantity", "reserved", "description",
+                "reorderThreshold", "version");
+        return query;
+    }
+
+    // One product as stored in the file: strings are length-prefixed UTF-8 (-1 for null), and so is a
+    // missing version
+    private static final class Entry {
+
+        private final String id;
+        private final String productName;
+        private final String category;
+        private final String description;
+        private final double price;
+        private final int quantity;
+        private final int reserved;
+        private final Integer reorderThreshold;
+        private final Long version;
+
+        private Entry(String id, String productName, String category, String description, double price,
+                int quantity, int reserved, Integer reorderThreshold, Long version) {
+            this.id = id;
+            this.productName = productName;
+            this.category = category;
+            this.description = description;
+            this.price = price;
+            this.quantity = quantity;
+            this.reserved = reserved;
+            this.reorderThreshold = reorderThreshold;
+            this.version = version;
+        }
+
+        private Entry(Product product) {
+            this(product.getId(), product.getProductName(), product.getCategory(), product.getDescription(),
+                    product.getPrice(), product.getQuantity(), product.getReserved(), product.getReorderThreshold(),
+                    product.getVersion());
+        }
+
+        private Product toProduct() {
+            Product product = new Product(productName, category, price, quantity, description);
+            product.setId(id);
+            product.setReserved(reserved);
+            product.setReorderThreshold(reorderThreshold);
+            product.setVersion(version);
+            return product;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            writeString(out, id);
+            writeString(out, productName);
+            writeString(out, category);
+            writeString(out, description);
+            out.writeDouble(price);
+            out.writeInt(quantity);
+            out.writeInt(reserved);
+            out.writeBoolean(reorderThreshold != null);
+            out.writeInt(reorderThreshold == null ? 0 : reorderThreshold);
+            out.writeLong(version == null ? -1 : version);
+        }
+
+        private static Entry read(ByteBuffer buffer) {
+            String id = readString(buffer);
+            String productName = readString(buffer);
+            String category = readString(buffer);
+            String description = readString(buffer);
+            double price = buffer.getDouble();
+            int quantity = buffer.getInt();
+            int reserved = buffer.getInt();
+            boolean hasThreshold = buffer.get() != 0;
+            int threshold = buffer.getInt();
+            long version = buffer.getLong();
+            return new Entry(id, productName, category, description, price, quantity, reserved,
+                    hasThreshold ? threshold : null, version < 0 ? null : version);
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private static String readString(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
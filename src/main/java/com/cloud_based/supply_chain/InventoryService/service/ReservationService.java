@@ -0,0 +1,217 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.model.StockReservation;
+
+// Holds stock for PENDING orders. A hold moves units from Product.quantity (available to promise)
+// to Product.reserved, so availability is always a single field read and never needs an order scan.
+@Service
+public class ReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private StockService stockService;
+
+    @Value("${inventory.reservation.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    // Hold stock for an order. Returns the IDs that could not be held; nothing is held in that case.
+    // Stock is taken before the ledger entry is written: a crash in between can only strand units
+    // (undersell), never release units that were not taken (oversell). A ledger write that fails
+    // outright gives the units back before the error is passed on.
+    public List<String> hold(String orderId, Map<String, Integer> lines) {
+        Map<String, Integer> quantityDeltas = lines.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> -e.getValue()));
+
+        List<String> failedProductIds = stockService.applyDeltas(orderId + ":hold", StockChangeReason.HOLD, orderId,
+                quantityDeltas, lines);
+        if (failedProductIds.isEmpty()) {
+            Instant expiresAt = expiresAt();
+            try {
+                mongoTemplate.save(new StockReservation(orderId, lines, expiresAt));
+            } catch (RuntimeException e) {
+                undoHolds(orderId + ":hold", Map.of(orderId, lines), expiresAt);
+                throw e;
+            }
+        }
+        return failedProductIds;
+    }
+
+    // Hold stock for several orders at once (orderId -> productId -> quantity): one bulk write for
+    // the summed quantities and one insertMany for the ledger. All or nothing, like hold.
+    public List<String> holdAll(String batchId, Map<String, Map<String, Integer>> linesByOrder) {
+        Map<String, Integer> totals = new HashMap<>();
+        linesByOrder.values().forEach(lines -> lines.forEach((productId, quantity) -> totals.merge(productId, quantity, Integer::sum)));
+        Map<String, Integer> quantityDeltas = totals.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> -e.getValue()));
+
+        List<String> failedProductIds = stockService.applyDeltas(batchId + ":hold", StockChangeReason.HOLD, null,
+                quantityDeltas, totals);
+        if (failedProductIds.isEmpty()) {
+            Instant expiresAt = expiresAt();
+            List<StockReservation> reservations = new ArrayList<>();
+            linesByOrder.forEach((orderId, lines) -> reservations.add(new StockReservation(orderId, lines, expiresAt)));
+            try {
+                mongoTemplate.insert(reservations, StockReservation.class);
+            } catch (RuntimeException e) {
+                undoHolds(batchId + ":hold", linesByOrder, expiresAt);
+                throw e;
+            }
+        }
+        return failedProductIds;
+    }
+
+    // Turn a live hold into a permanent decrement. Returns false if there is no live hold
+    // (expired, released or never placed), in which case the caller has to take stock itself.
+    public boolean confirm(String orderId) {
+        StockReservation reservation = close(orderId, StockReservation.Status.CONFIRMED);
+        if (reservation == null) {
+            return false;
+        }
+        Map<String, Integer> reservedDeltas = reservation.getLines().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> -e.getValue()));
+        stockService.applyDeltas(orderId + ":confirm", StockChangeReason.CONFIRM, orderId, Map.of(), reservedDeltas);
+        return true;
+    }
+
+    // Give held stock back. Returns false if there was no live hold.
+    public boolean release(String orderId) {
+        StockReservation reservation = close(orderId, StockReservation.Status.RELEASED);
+        if (reservation == null) {
+            return false;
+        }
+        Map<String, Integer> reservedDeltas = reservation.getLines().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> -e.getValue()));
+        stockService.applyDeltas(orderId + ":release", StockChangeReason.RELEASE, orderId,
+                reservation.getLines(), reservedDeltas);
+        return true;
+    }
+
+    // Confirm the live holds of several orders with one bulk write for the summed quantities.
+    // Returns the IDs of the orders that had a live hold; the others must take stock themselves.
+    public List<String> confirmAll(String batchId, Collection<String> orderIds) {
+        List<StockReservation> closed = closeAll(batchId, orderIds, StockReservation.Status.CONFIRMED);
+        Map<String, Integer> totals = sumLines(closed);
+        Map<String, Integer> reservedDeltas = totals.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> -e.getValue()));
+        stockService.applyDeltas(batchId + ":confirm", StockChangeReason.CONFIRM, null, Map.of(), reservedDeltas);
+        return closed.stream().map(StockReservation::getId).collect(Collectors.toList());
+    }
+
+    // Release the live holds of several orders with one bulk write. Returns the released order IDs.
+    public List<String> releaseAll(String batchId, Collection<String> orderIds) {
+        List<StockReservation> closed = closeAll(batchId, orderIds, StockReservation.Status.RELEASED);
+        Map<String, Integer> totals = sumLines(closed);
+        Map<String, Integer> reservedDeltas = totals.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> -e.getValue()));
+        stockService.applyDeltas(batchId + ":release", StockChangeReason.RELEASE, null, totals, reservedDeltas);
+        return closed.stream().map(StockReservation::getId).collect(Collectors.toList());
+    }
+
+    // Release holds whose TTL has passed
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:30000}")
+    public void releaseExpired() {
+        Query query = new Query(Criteria.where("status").is(StockReservation.Status.HELD)
+                .and("expiresAt").lt(Instant.now()))
+                .limit(SWEEP_BATCH_SIZE);
+        query.fields().include("_id");
+
+        List<StockReservation> expired = mongoTemplate.find(query, StockReservation.class);
+        for (StockReservation reservation : expired) {
+            release(reservation.getId());
+        }
+        if (!expired.isEmpty()) {
+            logger.info("Released {} expired stock reservations", expired.size());
+        }
+    }
+
+    // Stored dates have millisecond precision; the expiry doubles as the mark of one hold attempt
+    private Instant expiresAt() {
+        return Instant.now().plus(Duration.ofMinutes(ttlMinutes)).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    // The ledger write of a hold failed after its stock was taken. It may still have stored some
+    // entries, so drop those that are still HELD, then give back the units of every order whose
+    // entry was not closed by a confirm or release in the meantime (that caller moved them already).
+    private void undoHolds(String txnId, Map<String, Map<String, Integer>> linesByOrder, Instant expiresAt) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(linesByOrder.keySet())
+                .and("expiresAt").is(expiresAt)
+                .and("status").is(StockReservation.Status.HELD)), StockReservation.class);
+        Query closedQuery = new Query(Criteria.where("_id").in(linesByOrder.keySet()).and("expiresAt").is(expiresAt));
+        closedQuery.fields().include("_id");
+        Set<String> closed = mongoTemplate.find(closedQuery, StockReservation.class).stream()
+                .map(StockReservation::getId)
+                .collect(Collectors.toSet());
+
+        Map<String, Integer> totals = new HashMap<>();
+        linesByOrder.forEach((orderId, lines) -> {
+            if (!closed.contains(orderId)) {
+                lines.forEach((productId, quantity) -> totals.merge(productId, quantity, Integer::sum));
+            }
+        });
+        Map<String, Integer> reservedDeltas = totals.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> -e.getValue()));
+        String orderId = linesByOrder.size() == 1 ? linesByOrder.keySet().iterator().next() : null;
+        List<String> failedProductIds = stockService.applyDeltas(txnId + ":undo", StockChangeReason.RELEASE, orderId,
+                totals, reservedDeltas);
+        if (!failedProductIds.isEmpty()) {
+            logger.warn("Could not give back held stock of {} for products {}", txnId, failedProductIds);
+        }
+    }
+
+    // Atomically move a HELD entry to its final status; only one caller can win
+    private StockReservation close(String orderId, StockReservation.Status status) {
+        Query query = new Query(Criteria.where("_id").is(orderId).and("status").is(StockReservation.Status.HELD));
+        Update update = new Update().set("status", status).set("closedAt", Instant.now());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                StockReservation.class);
+    }
+
+    // Move all HELD entries among the given orders to their final status in one update, tagging
+    // them with the batch so exactly the entries this call won can be read back
+    private List<StockReservation> closeAll(String batchId, Collection<String> orderIds, StockReservation.Status status) {
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(orderIds).and("status").is(StockReservation.Status.HELD)),
+                new Update().set("status", status).set("closedAt", Instant.now()).set("closedBy", batchId),
+                StockReservation.class);
+        return mongoTemplate.find(
+                new Query(Criteria.where("_id").in(orderIds).and("closedBy").is(batchId)),
+                StockReservation.class);
+    }
+
+    private Map<String, Integer> sumLines(List<StockReservation> reservations) {
+        Map<String, Integer> totals = new HashMap<>();
+        reservations.forEach(reservation -> reservation.getLines()
+                .forEach((productId, quantity) -> totals.merge(productId, quantity, Integer::sum)));
+        return totals;
+    }
+}
@@ -0,0 +1,176 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.cloud_based.supply_chain.InventoryService.model.StockOutboxEntry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Append-only journal of the stock changes InMemoryStockService has acknowledged but maybe not yet
+// flushed: one line per unit of work, productId -> outbox entry. Records go to the active segment;
+// a flush first rotates to a new segment, and the closed ones are deleted once everything drained
+// after the rotation is in Mongo. Appends are forced to disk in groups: a caller waits until one
+// force covers its record, and a single force covers every record written before it.
+class StockJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockJournal.class);
+
+    private static final String SEGMENT_PREFIX = "stock-journal-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final TypeReference<Map<String, StockOutboxEntry>> RECORD_TYPE = new TypeReference<>() {
+    };
+
+    private final Path directory;
+
+    private final ObjectMapper objectMapper;
+
+    private final List<Path> closedSegments = new ArrayList<>(); // Guarded by this
+
+    private final Object syncLock = new Object();
+
+    private final AtomicLong synced = new AtomicLong(); // Records known to be on disk
+
+    private FileChannel active; // Guarded by this
+
+    private Path activePath; // Guarded by this
+
+    private long nextSegment; // Guarded by this
+
+    private long written; // Records appended, guarded by this
+
+    private long writtenAtRotation; // Guarded by this
+
+    // Segments left by an earlier run are kept as closed segments until recovery deleted them
+    StockJournal(Path directory, ObjectMapper objectMapper) throws IOException {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        Files.createDirectories(directory);
+        for (Path segment : segments()) {
+            closedSegments.add(segment);
+            nextSegment = Math.max(nextSegment, segmentNumber(segment) + 1);
+        }
+        openSegment();
+    }
+
+    // Records of the segments an earlier run left behind, oldest first. A torn last line, from a
+    // crash in the middle of an append, was never acknowledged and is skipped.
+    synchronized List<Map<String, StockOutboxEntry>> readClosedSegments() throws IOException {
+        List<Map<String, StockOutboxEntry>> records = new ArrayList<>();
+        for (Path segment : closedSegments) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                for (String line; (line = reader.readLine()) != null; ) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        records.add(objectMapper.readValue(line, RECORD_TYPE));
+                    } catch (JsonProcessingException e) {
+                        logger.warn("Skipping an unreadable record in stock journal {}", segment.getFileName());
+                    }
+                }
+            }
+        }
+        return records;
+    }
+
+    // Write a record to the active segment; returns its number for sync
+    synchronized long append(Map<String, StockOutboxEntry> record) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            active.write(line);
+        }
+        return ++written;
+    }
+
+    // Wait until the given record is on disk
+    void sync(long record) throws IOException {
+        synchronized (syncLock) {
+            if (synced.get() >= record) {
+                return;
+            }
+            long target;
+            FileChannel channel;
+            synchronized (this) {
+                target = written;
+                channel = active;
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated in the meantime; rotation forces the segment before closing it
+                if (synced.get() >= record) {
+                    return;
+                }
+                throw e;
+            }
+            synced.accumulateAndGet(target, Math::max);
+        }
+    }
+
+    // Close the active segment if it has records and start a new one. Every record written so far
+    // is then in a closed segment.
+    synchronized void rotate() throws IOException {
+        if (written == writtenAtRotation) {
+            return;
+        }
+        active.force(false);
+        synced.accumulateAndGet(written, Math::max);
+        active.close();
+        closedSegments.add(activePath);
+        writtenAtRotation = written;
+        openSegment();
+    }
+
+    // Called once every record of the closed segments is in Mongo
+    synchronized void deleteClosedSegments() throws IOException {
+        for (Path segment : closedSegments) {
+            Files.deleteIfExists(segment);
+        }
+        closedSegments.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.close();
+    }
+
+    private void openSegment() throws IOException {
+        activePath = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        active = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,33 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import java.util.List;
+import java.util.Map;
+
+import com.cloud_based.supply_chain.InventoryService.dto.StockAvailability;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+
+// Stock counters of the inventory module. The engine is chosen with the "inventory.engine"
+// property: "mongo" (default) writes every change to the product documents, "memory" keeps
+// counters in memory and writes them behind to Mongo.
+public interface StockService {
+
+    // Available-to-promise and held units for one product
+    StockAvailability getAvailability(String productId);
+
+    // Apply all quantity and reserved changes of one unit of work (txnId). Decrements only succeed
+    // when enough units are there. Returns the IDs that could not be applied; an empty list means
+    // every change was applied, otherwise none of them is left applied. Each applied product gets
+    // an inventory event with the reason and, if the work is for a single order, its orderId.
+    List<String> applyDeltas(String txnId, StockChangeReason reason, String orderId,
+            Map<String, Integer> quantityDeltas, Map<String, Integer> reservedDeltas);
+
+    // Apply all quantity changes of one unit of work (txnId), see applyDeltas
+    default List<String> adjustQuantities(String txnId, StockChangeReason reason, String orderId,
+            Map<String, Integer> quantityDeltas) {
+        return applyDeltas(txnId, reason, orderId, quantityDeltas, Map.of());
+    }
+
+    // Called after a product document was replaced or deleted outside of this service
+    default void evict(String productId) {
+    }
+}
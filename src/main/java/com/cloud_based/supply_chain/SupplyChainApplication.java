@@ -2,19 +2,14 @@ package com.cloud_based.supply_chain;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SupplyChainApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(SupplyChainApplication.class, args);
 	}
 
-	@Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-
 }
@@ -0,0 +1,91 @@
+package com.cloud_based.supply_chain.analyticsservice.controller;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cloud_based.supply_chain.analyticsservice.dto.RollupRebuildResult;
+import com.cloud_based.supply_chain.analyticsservice.model.CategoryDailySales;
+import com.cloud_based.supply_chain.analyticsservice.model.ProductDailySales;
+import com.cloud_based.supply_chain.analyticsservice.service.SalesRollupService;
+
+// Sales dashboards over the precomputed daily rollups (ROLE_ADMIN or ROLE_MANAGER, see SecurityConfig).
+// Dates are yyyy-MM-dd in UTC and ranges are inclusive.
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private static final int MAX_TOP_PRODUCTS = 100;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    // Daily units and revenue of one product
+    @GetMapping("/products/{productId}/daily")
+    public ResponseEntity<List<ProductDailySales>> getProductSales(@PathVariable String productId,
+            @RequestParam String from, @RequestParam String to) {
+        LocalDate[] range = parseRange(from, to);
+        if (range == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesRollupService.getProductSales(productId, range[0], range[1]));
+    }
+
+    // Daily units and revenue of one category
+    @GetMapping("/categories/{category}/daily")
+    public ResponseEntity<List<CategoryDailySales>> getCategorySales(@PathVariable String category,
+            @RequestParam String from, @RequestParam String to) {
+        LocalDate[] range = parseRange(from, to);
+        if (range == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesRollupService.getCategorySales(category, range[0], range[1]));
+    }
+
+    // Best-selling products of one day by revenue
+    @GetMapping("/top-products")
+    public ResponseEntity<List<ProductDailySales>> getTopProducts(@RequestParam String day,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDate[] range = parseRange(day, day);
+        if (range == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_TOP_PRODUCTS));
+        return ResponseEntity.ok(salesRollupService.getTopProducts(range[0], size));
+    }
+
+    // Recompute the rollups of a range of days from the orders
+    @PostMapping("/rebuild")
+    public ResponseEntity<RollupRebuildResult> rebuild(@RequestParam String from, @RequestParam String to) {
+        LocalDate[] range = parseRange(from, to);
+        if (range == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesRollupService.rebuild(range[0], range[1]));
+    }
+
+    // Both dates, or null if either is malformed, out of order or too far apart
+    private LocalDate[] parseRange(String from, String to) {
+        try {
+            LocalDate start = LocalDate.parse(from);
+            LocalDate end = LocalDate.parse(to);
+            if (end.isBefore(start) || start.plusDays(MAX_RANGE_DAYS).isBefore(end)) {
+                return null;
+            }
+            return new LocalDate[] { start, end };
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
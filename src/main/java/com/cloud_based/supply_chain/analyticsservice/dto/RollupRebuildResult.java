@@ -0,0 +1,63 @@
+package com.cloud_based.supply_chain.analyticsservice.dto;
+
+public class RollupRebuildResult {
+
+    private int days;
+    private long productRollups;
+    private long categoryRollups;
+    private long unpricedUnits; // Units of legacy order lines stored without a unit price, so without revenue
+    private long elapsedMillis;
+
+    public RollupRebuildResult() {
+    }
+
+    public RollupRebuildResult(int days, long productRollups, long categoryRollups, long unpricedUnits,
+            long elapsedMillis) {
+        this.days = days;
+        this.productRollups = productRollups;
+        this.categoryRollups = categoryRollups;
+        this.unpricedUnits = unpricedUnits;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Getters and Setters
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public long getProductRollups() {
+        return productRollups;
+    }
+
+    public void setProductRollups(long productRollups) {
+        this.productRollups = productRollups;
+    }
+
+    public long getCategoryRollups() {
+        return categoryRollups;
+    }
+
+    public void setCategoryRollups(long categoryRollups) {
+        this.categoryRollups = categoryRollups;
+    }
+
+    public long getUnpricedUnits() {
+        return unpricedUnits;
+    }
+
+    public void setUnpricedUnits(long unpricedUnits) {
+        this.unpricedUnits = unpricedUnits;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
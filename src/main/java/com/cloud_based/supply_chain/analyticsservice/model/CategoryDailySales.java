@@ -0,0 +1,68 @@
+package com.cloud_based.supply_chain.analyticsservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Units and revenue of one product category on one day, over CONFIRMED orders
+@Document(collection = "category_daily_sales")
+@CompoundIndexes({
+    @CompoundIndex(name = "category_day", def = "{'category': 1, 'day': 1}")
+})
+public class CategoryDailySales {
+
+    @Id
+    private String id; // category + "|" + day
+
+    private String category;
+
+    private String day; // yyyy-MM-dd (UTC) of the order date
+
+    private long units;
+
+    private double revenue;
+
+    public CategoryDailySales() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+}
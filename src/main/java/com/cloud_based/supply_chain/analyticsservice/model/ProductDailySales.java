@@ -0,0 +1,79 @@
+package com.cloud_based.supply_chain.analyticsservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Units and revenue of one product on one day, over CONFIRMED orders
+@Document(collection = "product_daily_sales")
+@CompoundIndexes({
+    @CompoundIndex(name = "productId_day", def = "{'productId': 1, 'day': 1}"),
+    @CompoundIndex(name = "day_revenue", def = "{'day': 1, 'revenue': -1}")
+})
+public class ProductDailySales {
+
+    @Id
+    private String id; // productId + "|" + day
+
+    private String productId;
+
+    private String day; // yyyy-MM-dd (UTC) of the order date
+
+    private String category; // Category of the product when the rollup was last written
+
+    private long units;
+
+    private double revenue;
+
+    public ProductDailySales() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,275 @@
+package com.cloud_based.supply_chain.analyticsservice.service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.analyticsservice.dto.RollupRebuildResult;
+import com.cloud_based.supply_chain.analyticsservice.model.CategoryDailySales;
+import com.cloud_based.supply_chain.analyticsservice.model.ProductDailySales;
+import com.cloud_based.supply_chain.orderservice.client.InventoryGateway;
+import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.cloud_based.supply_chain.orderservice.model.OrderLine;
+import com.cloud_based.supply_chain.orderservice.model.OrderStatus;
+
+// Daily sales rollups per product and per category, counting CONFIRMED orders on the UTC day they
+// were placed. Confirming adds an order's lines and cancelling or deleting a confirmed order
+// subtracts them, each as one bulk of upserted $inc operations, so dashboards read a handful of
+// small documents instead of scanning orders. The rollups are derived data: a failed incremental
+// update is logged rather than failing the order, and rebuild() recomputes any range from orders.
+// Revenue is quantity times the unit price stored on the line. Lines of orders placed before prices
+// were stored (converted from repeated productIds) have a unit price of 0: they count in units but
+// add nothing to revenue, and a rebuild reports how many such units it met.
+@Service
+public class SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final String UNKNOWN_CATEGORY = "unknown"; // Products deleted since the order
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private InventoryGateway inventoryGateway;
+
+    @Value("${analytics.rebuild.threads:4}")
+    private int rebuildThreads;
+
+    // Orders that have just become CONFIRMED
+    public void recordConfirmed(Collection<Order> orders) {
+        apply(orders, 1);
+    }
+
+    // CONFIRMED orders that have just been cancelled or deleted
+    public void recordReversed(Collection<Order> orders) {
+        apply(orders, -1);
+    }
+
+    private void apply(Collection<Order> orders, int sign) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Totals> byProductDay = new HashMap<>();
+            for (Order order : orders) {
+                String day = dayOf(order);
+                for (OrderLine line : order.getLines()) {
+                    byProductDay.computeIfAbsent(line.getProductId() + "|" + day, key -> new Totals(line.getProductId(), day))
+                            .add(sign * line.getQuantity(), sign * line.getQuantity() * line.getUnitPrice());
+                }
+            }
+            Map<String, String> categories = categoriesOf(byProductDay.values().stream()
+                    .map(totals -> totals.key)
+                    .collect(Collectors.toSet()));
+
+            BulkOperations productBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductDailySales.class);
+            Map<String, Totals> byCategoryDay = new HashMap<>();
+            for (Totals totals : byProductDay.values()) {
+                String category = categories.get(totals.key);
+                productBulk.upsert(new Query(Criteria.where("_id").is(totals.key + "|" + totals.day)),
+                        new Update().inc("units", totals.units).inc("revenue", totals.revenue)
+                                .set("category", category)
+                                .setOnInsert("productId", totals.key).setOnInsert("day", totals.day));
+                byCategoryDay.computeIfAbsent(category + "|" + totals.day, key -> new Totals(category, totals.day))
+                        .add(totals.units, totals.revenue);
+            }
+            productBulk.execute();
+
+            BulkOperations categoryBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CategoryDailySales.class);
+            byCategoryDay.forEach((id, totals) -> categoryBulk.upsert(new Query(Criteria.where("_id").is(id)),
+                    new Update().inc("units", totals.units).inc("revenue", totals.revenue)
+                            .setOnInsert("category", totals.key).setOnInsert("day", totals.day)));
+            categoryBulk.execute();
+        } catch (RuntimeException e) {
+            logger.warn("Updating sales rollups for {} orders failed; rebuild the affected days to correct them",
+                    orders.size(), e);
+        }
+    }
+
+    // Recompute the rollups of every day in [from, to] from CONFIRMED orders. Days are independent,
+    // so they are aggregated in parallel. Each day's documents are replaced one by one and only then
+    // are the ones no longer backed by an order removed, so readers never see a day half empty.
+    public RollupRebuildResult rebuild(LocalDate from, LocalDate to) {
+        long start = System.currentTimeMillis();
+        List<LocalDate> days = from.datesUntil(to.plusDays(1)).collect(Collectors.toList());
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(rebuildThreads, days.size()));
+        try {
+            List<CompletableFuture<long[]>> futures = days.stream()
+                    .map(day -> CompletableFuture.supplyAsync(() -> rebuildDay(day), executor))
+                    .collect(Collectors.toList());
+            long productRollups = 0;
+            long categoryRollups = 0;
+            long unpricedUnits = 0;
+            for (CompletableFuture<long[]> future : futures) {
+                long[] counts = future.join();
+                productRollups += counts[0];
+                categoryRollups += counts[1];
+                unpricedUnits += counts[2];
+            }
+            if (unpricedUnits > 0) {
+                logger.info("Rebuilt rollups from {} to {} include {} units without a unit price", from, to,
+                        unpricedUnits);
+            }
+            return new RollupRebuildResult(days.size(), productRollups, categoryRollups, unpricedUnits,
+                    System.currentTimeMillis() - start);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Counts of product rollups, category rollups and units without a unit price
+    private long[] rebuildDay(LocalDate day) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("orderStatus").is(OrderStatus.CONFIRMED)
+                        .and("orderDate").gte(day.atStartOfDay(ZoneOffset.UTC).toInstant())
+                        .lt(day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant())),
+                Aggregation.unwind("lines"),
+                Aggregation.group("lines.productId")
+                        .sum("lines.quantity").as("units")
+                        .sum(ArithmeticOperators.Multiply.valueOf("lines.quantity").multiplyBy("lines.unitPrice")).as("revenue")
+                        .sum(ConditionalOperators.when(ComparisonOperators.valueOf("lines.unitPrice").greaterThanValue(0))
+                                .then(0).otherwiseValueOf("lines.quantity")).as("unpricedUnits"));
+        List<Document> rows = mongoTemplate.aggregate(aggregation, Order.class, Document.class).getMappedResults();
+
+        String dayKey = day.toString();
+        Map<String, String> categories = categoriesOf(rows.stream()
+                .map(row -> row.getString("_id"))
+                .collect(Collectors.toSet()));
+        List<ProductDailySales> productRollups = new ArrayList<>(rows.size());
+        Map<String, CategoryDailySales> categoryRollups = new HashMap<>();
+        long unpricedUnits = 0;
+        for (Document row : rows) {
+            String productId = row.getString("_id");
+            long units = ((Number) row.get("units")).longValue();
+            double revenue = ((Number) row.get("revenue")).doubleValue();
+            String category = categories.get(productId);
+            unpricedUnits += ((Number) row.get("unpricedUnits")).longValue();
+
+            ProductDailySales productRollup = new ProductDailySales();
+            productRollup.setId(productId + "|" + dayKey);
+            productRollup.setProductId(productId);
+            productRollup.setDay(dayKey);
+            productRollup.setCategory(category);
+            productRollup.setUnits(units);
+            productRollup.setRevenue(revenue);
+            productRollups.add(productRollup);
+
+            CategoryDailySales categoryRollup = categoryRollups.computeIfAbsent(category, key -> {
+                CategoryDailySales created = new CategoryDailySales();
+                created.setId(key + "|" + dayKey);
+                created.setCategory(key);
+                created.setDay(dayKey);
+                return created;
+            });
+            categoryRollup.setUnits(categoryRollup.getUnits() + units);
+            categoryRollup.setRevenue(categoryRollup.getRevenue() + revenue);
+        }
+
+        replaceDay(dayKey, productRollups, ProductDailySales.class, ProductDailySales::getId);
+        replaceDay(dayKey, categoryRollups.values(), CategoryDailySales.class, CategoryDailySales::getId);
+        return new long[] { productRollups.size(), categoryRollups.size(), unpricedUnits };
+    }
+
+    // Upsert the day's rollups by ID, then remove the day's rollups that were not among them
+    private <T> void replaceDay(String dayKey, Collection<T> rollups, Class<T> type, Function<T, String> idOf) {
+        List<String> ids = rollups.stream().map(idOf).collect(Collectors.toList());
+        if (!rollups.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+            rollups.forEach(rollup -> bulk.replaceOne(new Query(Criteria.where("_id").is(idOf.apply(rollup))), rollup,
+                    FindAndReplaceOptions.options().upsert()));
+            bulk.execute();
+        }
+        mongoTemplate.remove(new Query(Criteria.where("day").is(dayKey).and("_id").nin(ids)), type);
+    }
+
+    public List<ProductDailySales> getProductSales(String productId, LocalDate from, LocalDate to) {
+        Query query = new Query(Criteria.where("productId").is(productId)
+                .and("day").gte(from.toString()).lte(to.toString()))
+                .with(Sort.by("day"));
+        return mongoTemplate.find(query, ProductDailySales.class);
+    }
+
+    public List<CategoryDailySales> getCategorySales(String category, LocalDate from, LocalDate to) {
+        Query query = new Query(Criteria.where("category").is(category)
+                .and("day").gte(from.toString()).lte(to.toString()))
+                .with(Sort.by("day"));
+        return mongoTemplate.find(query, CategoryDailySales.class);
+    }
+
+    // Best-selling products of one day by revenue
+    public List<ProductDailySales> getTopProducts(LocalDate day, int limit) {
+        Query query = new Query(Criteria.where("day").is(day.toString()))
+                .with(Sort.by(Sort.Direction.DESC, "revenue"))
+                .limit(limit);
+        return mongoTemplate.find(query, ProductDailySales.class);
+    }
+
+    private static String dayOf(Order order) {
+        return LocalDate.ofInstant(order.getOrderDate(), ZoneOffset.UTC).toString();
+    }
+
+    // Current category of each product, in one lookup
+    private Map<String, String> categoriesOf(Set<String> productIds) {
+        Map<String, String> categories = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            Map<String, Product> products = inventoryGateway.getProducts(new HashSet<>(productIds)).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            productIds.forEach(productId -> {
+                Product product = products.get(productId);
+                categories.put(productId, product == null || product.getCategory() == null
+                        ? UNKNOWN_CATEGORY : product.getCategory());
+            });
+        }
+        return categories;
+    }
+
+    private static final class Totals {
+
+        private final String key; // Product ID or category
+        private final String day;
+        private long units;
+        private double revenue;
+
+        private Totals(String key, String day) {
+            this.key = key;
+            this.day = day;
+        }
+
+        private void add(long units, double revenue) {
+            this.units += units;
+            this.revenue += revenue;
+        }
+    }
+}
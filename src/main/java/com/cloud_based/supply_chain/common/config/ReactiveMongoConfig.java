@@ -0,0 +1,17 @@
+package com.cloud_based.supply_chain.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+import com.cloud_based.supply_chain.InventoryService.Repository.ReactiveProductRepository;
+import com.cloud_based.supply_chain.orderservice.Repository.ReactiveOrderRepository;
+
+// Reactive repositories for the /api/reactive/** endpoints. Outside the "reactive" profile the
+// reactive Mongo auto-configuration is excluded (see application.properties), so the default
+// deployment opens no second connection pool and creates no reactive repositories.
+@Configuration
+@Profile("reactive")
+@EnableReactiveMongoRepositories(basePackageClasses = { ReactiveProductRepository.class, ReactiveOrderRepository.class })
+public class ReactiveMongoConfig {
+}
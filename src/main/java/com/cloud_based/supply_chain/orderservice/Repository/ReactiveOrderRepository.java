@@ -0,0 +1,13 @@
+package com.cloud_based.supply_chain.orderservice.Repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.cloud_based.supply_chain.orderservice.model.Order;
+
+import reactor.core.publisher.Flux;
+
+public interface ReactiveOrderRepository extends ReactiveMongoRepository<Order, String> {
+
+    // Non-blocking variant of OrderRepository.findByUserId
+    Flux<Order> findByUserId(String userId);
+}
@@ -0,0 +1,132 @@
+package com.cloud_based.supply_chain.orderservice.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// Splits a large inventory lookup into chunks and runs them concurrently on a shared, bounded
+// executor. A single call never has more than "parallelism" chunks in flight, so one large order
+// cannot take every thread; the whole call has a deadline, and the first failure stops the
+// chunks that have not started yet.
+@Component
+public class InventoryFanOut {
+
+    private final ThreadPoolExecutor executor;
+
+    @Value("${inventory.fanout.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.fanout.chunk-size:20}")
+    private int chunkSize;
+
+    @Value("${inventory.fanout.parallelism:4}")
+    private int parallelism;
+
+    @Value("${inventory.fanout.deadline-ms:3000}")
+    private long deadlineMs;
+
+    public InventoryFanOut(@Value("${inventory.fanout.threads:16}") int threads,
+            @Value("${inventory.fanout.queue-capacity:256}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "inventory-fanout-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Whether a lookup of this many keys should be fanned out
+    public boolean appliesTo(int keyCount) {
+        return enabled && keyCount > chunkSize;
+    }
+
+    // Fetch all keys chunk by chunk, with at most "parallelism" chunks running for this call.
+    // Each lane works through its share of chunks sequentially; lanes run concurrently.
+    public <K, V> List<V> fetchAll(List<K> keys, Function<List<K>, List<V>> fetch) {
+        List<List<K>> chunks = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += chunkSize) {
+            chunks.add(keys.subList(i, Math.min(i + chunkSize, keys.size())));
+        }
+
+        int laneCount = Math.min(parallelism, chunks.size());
+        AtomicBoolean aborted = new AtomicBoolean();
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        List<CompletableFuture<List<V>>> lanes = new ArrayList<>();
+
+        for (int lane = 0; lane < laneCount; lane++) {
+            CompletableFuture<List<V>> laneFuture = CompletableFuture.completedFuture(new ArrayList<>());
+            for (int chunk = lane; chunk < chunks.size(); chunk += laneCount) {
+                List<K> chunkKeys = chunks.get(chunk);
+                laneFuture = laneFuture.thenApplyAsync(results -> {
+                    if (aborted.get()) {
+                        throw new CancellationException("Inventory lookup aborted");
+                    }
+                    results.addAll(fetch.apply(chunkKeys));
+                    return results;
+                }, executor);
+            }
+            laneFuture.whenComplete((results, error) -> {
+                if (error != null) {
+                    aborted.set(true);
+                    firstFailure.completeExceptionally(error);
+                }
+            });
+            lanes.add(laneFuture);
+        }
+
+        CompletableFuture<Void> allLanes = CompletableFuture.allOf(lanes.toArray(new CompletableFuture<?>[0]));
+        try {
+            CompletableFuture.anyOf(allLanes, firstFailure).get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abort(aborted, lanes);
+            throw new IllegalStateException("Inventory lookup exceeded its deadline of " + deadlineMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(aborted, lanes);
+            throw new IllegalStateException("Inventory lookup interrupted");
+        } catch (ExecutionException e) {
+            abort(aborted, lanes);
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause()
+                    : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Inventory lookup failed", cause);
+        }
+
+        List<V> results = new ArrayList<>();
+        for (CompletableFuture<List<V>> lane : lanes) {
+            results.addAll(lane.join());
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void abort(AtomicBoolean aborted, List<? extends CompletableFuture<?>> lanes) {
+        aborted.set(true);
+        lanes.forEach(lane -> lane.cancel(true));
+    }
+}
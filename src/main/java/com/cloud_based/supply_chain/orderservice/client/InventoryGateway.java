@@ -0,0 +1,43 @@
+package com.cloud_based.supply_chain.orderservice.client;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+
+// Access point the order service uses to reach the inventory module.
+// The implementation is chosen with the "inventory.gateway.mode" property:
+// "local" (default) calls the inventory service in the same JVM,
+// "remote" goes over HTTP for split deployments.
+public interface InventoryGateway {
+
+    // Returns the product or null if it does not exist
+    Product getProduct(String productId);
+
+    // Returns the existing products among the given IDs in a single round trip, bypassing any cache
+    List<Product> getProducts(Collection<String> productIds);
+
+    // Atomically applies signed quantity changes for one unit of work; decrements never oversell.
+    // Returns the IDs that could not be applied, in which case no change is left applied.
+    List<String> adjustStock(String txnId, StockChangeReason reason, String orderId, Map<String, Integer> quantityDeltas);
+
+    // Holds stock for a PENDING order. Returns the IDs that could not be held; nothing is held then.
+    List<String> holdStock(String orderId, Map<String, Integer> productQuantities);
+
+    // Holds stock for several orders (orderId -> productId -> quantity) with one bulk write, all or nothing
+    List<String> holdStockBatch(String batchId, Map<String, Map<String, Integer>> quantitiesByOrder);
+
+    // Turns the order's hold into a decrement; false if there is no live hold (e.g. it expired)
+    boolean confirmHold(String orderId);
+
+    // Gives the order's held stock back; false if there is no live hold
+    boolean releaseHold(String orderId);
+
+    // Confirms the live holds of several orders in one bulk write; returns the orders that had one
+    List<String> confirmHolds(String batchId, Collection<String> orderIds);
+
+    // Releases the live holds of several orders in one bulk write; returns the orders that had one
+    List<String> releaseHolds(String batchId, Collection<String> orderIds);
+}
@@ -0,0 +1,82 @@
+package com.cloud_based.supply_chain.orderservice.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.cloud_based.supply_chain.InventoryService.Repository.ProductRepository;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.service.ProductService;
+import com.cloud_based.supply_chain.InventoryService.service.ReservationService;
+import com.cloud_based.supply_chain.InventoryService.service.StockService;
+
+// In-process gateway: calls the inventory module directly, without going
+// through HTTP, Tomcat and the JWT filter
+@Component
+@ConditionalOnProperty(name = "inventory.gateway.mode", havingValue = "local", matchIfMissing = true)
+public class LocalInventoryGateway implements InventoryGateway {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Override
+    public Product getProduct(String productId) {
+        return productRepository.findById(productId).orElse(null);
+    }
+
+    @Override
+    public List<Product> getProducts(Collection<String> productIds) {
+        return productService.getProductsByIds(new ArrayList<>(productIds), true);
+    }
+
+    @Override
+    public List<String> adjustStock(String txnId, StockChangeReason reason, String orderId,
+            Map<String, Integer> quantityDeltas) {
+        return stockService.adjustQuantities(txnId, reason, orderId, quantityDeltas);
+    }
+
+    @Override
+    public List<String> holdStock(String orderId, Map<String, Integer> productQuantities) {
+        return reservationService.hold(orderId, productQuantities);
+    }
+
+    @Override
+    public List<String> holdStockBatch(String batchId, Map<String, Map<String, Integer>> quantitiesByOrder) {
+        return reservationService.holdAll(batchId, quantitiesByOrder);
+    }
+
+    @Override
+    public boolean confirmHold(String orderId) {
+        return reservationService.confirm(orderId);
+    }
+
+    @Override
+    public boolean releaseHold(String orderId) {
+        return reservationService.release(orderId);
+    }
+
+    @Override
+    public List<String> confirmHolds(String batchId, Collection<String> orderIds) {
+        return reservationService.confirmAll(batchId, orderIds);
+    }
+
+    @Override
+    public List<String> releaseHolds(String batchId, Collection<String> orderIds) {
+        return reservationService.releaseAll(batchId, orderIds);
+    }
+}
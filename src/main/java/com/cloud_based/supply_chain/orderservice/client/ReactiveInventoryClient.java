@@ -0,0 +1,89 @@
+package com.cloud_based.supply_chain.orderservice.client;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.cloud_based.supply_chain.InventoryService.dto.StockAdjustmentResult;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Non-blocking access to the inventory module for the reactive order endpoints. In "remote" mode
+// the calls go through WebClient; in "local" mode the in-process gateway is used, moved off the
+// request path onto the bounded elastic scheduler because it blocks on Mongo.
+@Component
+@Profile("reactive")
+public class ReactiveInventoryClient {
+
+    @Autowired
+    private InventoryGateway inventoryGateway;
+
+    @Autowired
+    private ServiceCredentials serviceCredentials;
+
+    @Value("${inventory.gateway.mode:local}")
+    private String gatewayMode;
+
+    private final WebClient webClient;
+
+    public ReactiveInventoryClient(WebClient.Builder webClientBuilder,
+            @Value("${inventory.service.url:http://localhost:8081/api/products}") String inventoryServiceUrl) {
+        this.webClient = webClientBuilder.baseUrl(inventoryServiceUrl).build();
+    }
+
+    // See InventoryGateway.getProducts
+    public Mono<List<Product>> getProducts(Collection<String> productIds) {
+        if (isRemote()) {
+            return webClient.post()
+                    .uri("/batch?fresh=true")
+                    .bodyValue(productIds)
+                    .retrieve()
+                    .bodyToFlux(Product.class)
+                    .collectList();
+        }
+        return Mono.fromCallable(() -> inventoryGateway.getProducts(productIds))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // See InventoryGateway.holdStock
+    public Mono<List<String>> holdStock(String orderId, Map<String, Integer> productQuantities) {
+        if (isRemote()) {
+            return webClient.post()
+                    .uri("/reservations/{orderId}", orderId)
+                    .header(HttpHeaders.AUTHORIZATION, serviceCredentials.authorization())
+                    .bodyValue(productQuantities)
+                    .retrieve()
+                    .bodyToMono(StockAdjustmentResult.class)
+                    .map(StockAdjustmentResult::getFailedProductIds);
+        }
+        return Mono.fromCallable(() -> inventoryGateway.holdStock(orderId, productQuantities))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // See InventoryGateway.releaseHold
+    public Mono<Boolean> releaseHold(String orderId) {
+        if (isRemote()) {
+            return webClient.delete()
+                    .uri("/reservations/{orderId}", orderId)
+                    .header(HttpHeaders.AUTHORIZATION, serviceCredentials.authorization())
+                    .retrieve()
+                    .bodyToMono(Boolean.class)
+                    .defaultIfEmpty(false);
+        }
+        return Mono.fromCallable(() -> inventoryGateway.releaseHold(orderId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private boolean isRemote() {
+        return "remote".equals(gatewayMode);
+    }
+}
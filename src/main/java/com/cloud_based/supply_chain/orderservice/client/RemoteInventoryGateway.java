@@ -0,0 +1,121 @@
+package com.cloud_based.supply_chain.orderservice.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.cloud_based.supply_chain.InventoryService.dto.StockAdjustmentRequest;
+import com.cloud_based.supply_chain.InventoryService.dto.StockAdjustmentResult;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+
+// HTTP gateway for deployments where the inventory service runs separately
+@Component
+@ConditionalOnProperty(name = "inventory.gateway.mode", havingValue = "remote")
+public class RemoteInventoryGateway implements InventoryGateway {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private InventoryFanOut inventoryFanOut;
+
+    @Autowired
+    private ServiceCredentials serviceCredentials;
+
+    @Value("${inventory.service.url:http://localhost:8081/api/products}")
+    private String inventoryServiceUrl;
+
+    @Override
+    public Product getProduct(String productId) {
+        return restTemplate.getForObject(inventoryServiceUrl + "/product-details/" + productId, Product.class);
+    }
+
+    @Override
+    public List<Product> getProducts(Collection<String> productIds) {
+        // Large orders are looked up in concurrent chunks when fan-out is enabled
+        if (inventoryFanOut.appliesTo(productIds.size())) {
+            return inventoryFanOut.fetchAll(new ArrayList<>(productIds), this::fetchProducts);
+        }
+        return fetchProducts(productIds);
+    }
+
+    private List<Product> fetchProducts(Collection<String> productIds) {
+        Product[] products = restTemplate.postForObject(inventoryServiceUrl + "/batch?fresh=true", productIds, Product[].class);
+        return products == null ? List.of() : Arrays.asList(products);
+    }
+
+    @Override
+    public List<String> adjustStock(String txnId, StockChangeReason reason, String orderId,
+            Map<String, Integer> quantityDeltas) {
+        StockAdjustmentResult result = postAsService(inventoryServiceUrl + "/adjust-stock",
+                new StockAdjustmentRequest(txnId, reason, orderId, quantityDeltas), StockAdjustmentResult.class);
+        if (result == null) {
+            throw new IllegalStateException("Empty response from inventory service for " + txnId);
+        }
+        return result.getFailedProductIds();
+    }
+
+    @Override
+    public List<String> holdStock(String orderId, Map<String, Integer> productQuantities) {
+        StockAdjustmentResult result = postAsService(inventoryServiceUrl + "/reservations/" + orderId,
+                productQuantities, StockAdjustmentResult.class);
+        if (result == null) {
+            throw new IllegalStateException("Empty response from inventory service for " + orderId);
+        }
+        return result.getFailedProductIds();
+    }
+
+    @Override
+    public List<String> holdStockBatch(String batchId, Map<String, Map<String, Integer>> quantitiesByOrder) {
+        StockAdjustmentResult result = postAsService(inventoryServiceUrl + "/reservations/batch/" + batchId,
+                quantitiesByOrder, StockAdjustmentResult.class);
+        if (result == null) {
+            throw new IllegalStateException("Empty response from inventory service for " + batchId);
+        }
+        return result.getFailedProductIds();
+    }
+
+    @Override
+    public boolean confirmHold(String orderId) {
+        Boolean confirmed = postAsService(inventoryServiceUrl + "/reservations/" + orderId + "/confirm",
+                null, Boolean.class);
+        return Boolean.TRUE.equals(confirmed);
+    }
+
+    @Override
+    public boolean releaseHold(String orderId) {
+        Boolean released = restTemplate.exchange(inventoryServiceUrl + "/reservations/" + orderId,
+                HttpMethod.DELETE, new HttpEntity<>(serviceCredentials.headers()), Boolean.class).getBody();
+        return Boolean.TRUE.equals(released);
+    }
+
+    @Override
+    public List<String> confirmHolds(String batchId, Collection<String> orderIds) {
+        String[] confirmed = postAsService(inventoryServiceUrl + "/reservations/batch/" + batchId + "/confirm",
+                orderIds, String[].class);
+        return confirmed == null ? List.of() : Arrays.asList(confirmed);
+    }
+
+    @Override
+    public List<String> releaseHolds(String batchId, Collection<String> orderIds) {
+        String[] released = postAsService(inventoryServiceUrl + "/reservations/batch/" + batchId + "/release",
+                orderIds, String[].class);
+        return released == null ? List.of() : Arrays.asList(released);
+    }
+
+    // POST to an endpoint that only accepts calls from other services
+    private <T> T postAsService(String url, Object body, Class<T> responseType) {
+        return restTemplate.postForObject(url, new HttpEntity<>(body, serviceCredentials.headers()), responseType);
+    }
+}
@@ -0,0 +1,52 @@
+package com.cloud_based.supply_chain.orderservice.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import com.cloud_based.supply_chain.userservice.config.JwtUtil;
+
+// Service token the order side sends on inventory calls that only other services may make (reservations,
+// stock adjustments). One token is shared until it gets close to expiry, then a new one is minted.
+@Component
+public class ServiceCredentials {
+
+    // Renew this long before the token expires, so a request in flight never carries an expired one
+    private static final long RENEW_BEFORE_MILLIS = 5 * 60 * 1000;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${inventory.service.client-name:order-service}")
+    private String clientName;
+
+    private volatile String token;
+
+    private volatile long renewAt;
+
+    // Value for the Authorization header
+    public String authorization() {
+        String current = token;
+        if (current == null || System.currentTimeMillis() >= renewAt) {
+            current = renew();
+        }
+        return "Bearer " + current;
+    }
+
+    // Headers for a RestTemplate call
+    public HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, authorization());
+        return headers;
+    }
+
+    private synchronized String renew() {
+        if (token == null || System.currentTimeMillis() >= renewAt) {
+            String renewed = jwtUtil.generateServiceToken(clientName);
+            renewAt = jwtUtil.verify(renewed).getExpiration().getTime() - RENEW_BEFORE_MILLIS;
+            token = renewed;
+        }
+        return token;
+    }
+}
@@ -0,0 +1,61 @@
+package com.cloud_based.supply_chain.orderservice.config;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.Timeout;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Connection pool that publishes its usage and the time callers wait for a connection
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final Timer leaseTimer;
+
+    public InstrumentedConnectionManager(MeterRegistry meterRegistry) {
+        this.leaseTimer = Timer.builder("http.client.pool.wait")
+                .description("Time spent waiting for a pooled connection")
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.leased", this, manager -> manager.getTotalStats().getLeased())
+                .description("Connections currently in use")
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.available", this, manager -> manager.getTotalStats().getAvailable())
+                .description("Idle connections kept in the pool")
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.pending", this, manager -> manager.getTotalStats().getPending())
+                .description("Requests waiting for a connection")
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.max", this, manager -> manager.getTotalStats().getMax())
+                .description("Maximum number of pooled connections")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest leaseRequest = super.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return leaseRequest.get(timeout);
+                } finally {
+                    leaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return leaseRequest.cancel();
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.cloud_based.supply_chain.orderservice.config;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterConvertCallback;
+
+import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.cloud_based.supply_chain.orderservice.model.OrderLine;
+import com.cloud_based.supply_chain.orderservice.model.OrderStatus;
+
+import reactor.core.publisher.Mono;
+
+// Reads orders stored in older shapes so the services only ever see the current one: repeated
+// productIds become line items, yyyy-MM-dd order dates become the start of that day in UTC and
+// free-form status strings become OrderStatus. The next save of such an order writes the new
+// shape; LegacyOrderMigrator rewrites the rest in the background.
+@Configuration
+public class LegacyOrderMappingConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new LegacyOrderDateConverter(), new LegacyOrderStatusConverter()));
+    }
+
+    @Bean
+    public AfterConvertCallback<Order> legacyOrderLinesCallback() {
+        return (order, document, collection) -> toLines(order);
+    }
+
+    @Bean
+    public ReactiveAfterConvertCallback<Order> reactiveLegacyOrderLinesCallback() {
+        return (order, document, collection) -> Mono.just(toLines(order));
+    }
+
+    private static Order toLines(Order order) {
+        if (order.getLines() == null && order.getProductIds() != null) {
+            order.setLines(OrderLine.fromProductIds(order.getProductIds()));
+            order.setProductIds(null);
+        }
+        return order;
+    }
+
+    // Only applies where an Instant property meets a stored string, which the order date is the
+    // sole source of
+    @ReadingConverter
+    static class LegacyOrderDateConverter implements Converter<String, Instant> {
+
+        @Override
+        public Instant convert(String source) {
+            if (source.length() == 10) {
+                return LocalDate.parse(source).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            return Instant.parse(source);
+        }
+    }
+
+    @ReadingConverter
+    static class LegacyOrderStatusConverter implements Converter<String, OrderStatus> {
+
+        @Override
+        public OrderStatus convert(String source) {
+            return OrderStatus.valueOf(source.trim().toUpperCase());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.cloud_based.supply_chain.orderservice.controller;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cloud_based.supply_chain.common.dto.CursorPage;
+import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.cloud_based.supply_chain.orderservice.service.OrderService;
+
+// Order queries across all users for operations staff (ROLE_ADMIN, see SecurityConfig)
+@RestController
+@RequestMapping("/api/orders/admin")
+public class OrderAdminController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private OrderService orderService;
+
+    // One page of orders, newest first, filtered by user, status and order date range.
+    // olderThanMinutes is a shortcut for "to = now - minutes", e.g. status=PENDING&olderThanMinutes=120.
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<Order>> searchOrders(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) Long olderThanMinutes,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (olderThanMinutes != null) {
+            if (to != null) {
+                return ResponseEntity.badRequest().build();
+            }
+            to = Instant.now().minus(Duration.ofMinutes(olderThanMinutes)).toString();
+        }
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            return ResponseEntity.ok(orderService.searchOrders(userId, status, from, to, after, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -3,6 +3,9 @@ package com.cloud_based.supply_chain.orderservice.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,7 +17,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.cloud_based.supply_chain.common.dto.CursorPage;
+import com.cloud_based.supply_chain.orderservice.dto.BulkOrderResult;
+import com.cloud_based.supply_chain.orderservice.dto.BulkStatusUpdateRequest;
 import com.cloud_based.supply_chain.orderservice.dto.OrderRequest;
 import com.cloud_based.supply_chain.orderservice.dto.OrderUpdateRequest;
 import com.cloud_based.supply_chain.orderservice.exception.InsufficientInventoryException;
@@ -26,6 +33,8 @@ import com.cloud_based.supply_chain.orderservice.service.OrderService;
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private OrderService orderService;
 
@@ -33,10 +42,19 @@ public class OrderController {
     @PostMapping("/create-order")
     public ResponseEntity<Order> createOrder(@RequestBody OrderRequest orderRequest, Authentication authentication) {
         String userId = authentication.getName(); // Extract userId from token
-        Order newOrder = orderService.createOrder(userId, orderRequest.getProductIds(), orderRequest.getTotalPrice());
+        Order newOrder = orderService.createOrder(userId, orderRequest);
         return ResponseEntity.ok(newOrder);
     }
 
+    // Place many orders at once; every entry gets its own result
+    @PostMapping("/bulk-create")
+    public ResponseEntity<List<BulkOrderResult>> createOrders(@RequestBody List<OrderRequest> orderRequests,
+            Authentication authentication) {
+        String userId = authentication.getName(); // Extract userId from token
+        List<BulkOrderResult> results = orderService.createOrders(userId, orderRequests);
+        return ResponseEntity.ok(results);
+    }
+
     // Get all orders for a specific user
     @GetMapping("/my-orders")
     public ResponseEntity<List<Order>> getMyOrders(Authentication authentication) {
@@ -45,14 +63,39 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    // Get one page of the user's orders, newest first, optionally filtered by status and date range
+    @GetMapping("/my-orders/page")
+    public ResponseEntity<CursorPage<Order>> getMyOrdersPage(Authentication authentication,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit) {
+        String userId = authentication.getName(); // Extract userId from token
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            return ResponseEntity.ok(orderService.getOrdersPageByUserId(userId, status, from, to, after, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Fetch a specific order by its ID
     @GetMapping("specific-orderId/{orderId}")
-    public ResponseEntity<Order> getOrderById(@PathVariable String orderId) {
+    public ResponseEntity<Order> getOrderById(@PathVariable String orderId, WebRequest request) {
+        // An unchanged order is answered with 304 from a version-only lookup, without loading it
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Long version = orderService.getOrderVersion(orderId);
+            if (version != null && request.checkNotModified(String.valueOf(version))) {
+                return null;
+            }
+        }
         Order order = orderService.getOrderById(orderId);
         if (order == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok().eTag(order.getVersion() == null ? null : String.valueOf(order.getVersion()))
+                .body(order);
     }
 
     // Delete an order by ID
@@ -69,7 +112,12 @@ public class OrderController {
     @PutMapping("/update/{orderId}")
     public ResponseEntity<Order> updateOrder(@PathVariable String orderId,
             @RequestBody OrderUpdateRequest orderUpdateRequest) {
-        Order updatedOrder = orderService.updateOrder(orderId, orderUpdateRequest);
+        Order updatedOrder;
+        try {
+            updatedOrder = orderService.updateOrder(orderId, orderUpdateRequest);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         if (updatedOrder == null) {
             return ResponseEntity.notFound().build();
         }
@@ -84,8 +132,25 @@ public class OrderController {
             return ResponseEntity.ok(updatedOrder);
         } catch (InvalidOrderStatusException | InsufficientInventoryException e) {
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
+
+    // Move many orders to the same status at once; every order gets its own result
+    @PutMapping("/bulk-update-status")
+    public ResponseEntity<List<BulkOrderResult>> updateOrderStatuses(@RequestBody BulkStatusUpdateRequest request) {
+        if (request.getOrderIds() == null || request.getStatus() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            List<BulkOrderResult> results = orderService.updateOrderStatuses(request.getOrderIds(),
+                    request.getStatus().toUpperCase());
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
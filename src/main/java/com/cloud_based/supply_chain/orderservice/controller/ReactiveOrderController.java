@@ -0,0 +1,55 @@
+package com.cloud_based.supply_chain.orderservice.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cloud_based.supply_chain.orderservice.dto.OrderRequest;
+import com.cloud_based.supply_chain.orderservice.exception.InsufficientInventoryException;
+import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.cloud_based.supply_chain.orderservice.service.ReactiveOrderService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking order endpoints, enabled with the "reactive" profile
+@RestController
+@RequestMapping("/api/reactive/orders")
+@Profile("reactive")
+public class ReactiveOrderController {
+
+    @Autowired
+    private ReactiveOrderService reactiveOrderService;
+
+    // Place a new order
+    @PostMapping("/create-order")
+    public Mono<ResponseEntity<Order>> createOrder(@RequestBody OrderRequest orderRequest, Authentication authentication) {
+        String userId = authentication.getName(); // Extract userId from token
+        return reactiveOrderService.createOrder(userId, orderRequest)
+                .map(ResponseEntity::ok)
+                .onErrorResume(InsufficientInventoryException.class, e -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    // Get all orders for a specific user
+    @GetMapping("/my-orders")
+    public Flux<Order> getMyOrders(Authentication authentication) {
+        String userId = authentication.getName(); // Extract userId from token
+        return reactiveOrderService.getOrdersByUserId(userId);
+    }
+
+    // Fetch a specific order by its ID
+    @GetMapping("/specific-orderId/{orderId}")
+    public Mono<ResponseEntity<Order>> getOrderById(@PathVariable String orderId) {
+        return reactiveOrderService.getOrderById(orderId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
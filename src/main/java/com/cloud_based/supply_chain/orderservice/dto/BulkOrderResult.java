@@ -0,0 +1,60 @@
+package com.cloud_based.supply_chain.orderservice.dto;
+
+public class BulkOrderResult {
+
+    private int index; // Position of the entry in the submitted batch
+    private String orderId;
+    private boolean success;
+    private String error;
+
+    public BulkOrderResult() {
+    }
+
+    public BulkOrderResult(int index, String orderId, boolean success, String error) {
+        this.index = index;
+        this.orderId = orderId;
+        this.success = success;
+        this.error = error;
+    }
+
+    public static BulkOrderResult succeeded(int index, String orderId) {
+        return new BulkOrderResult(index, orderId, true, null);
+    }
+
+    public static BulkOrderResult failed(int index, String orderId, String error) {
+        return new BulkOrderResult(index, orderId, false, error);
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
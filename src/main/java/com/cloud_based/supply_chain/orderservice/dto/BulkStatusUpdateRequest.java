@@ -0,0 +1,26 @@
+package com.cloud_based.supply_chain.orderservice.dto;
+
+import java.util.List;
+
+public class BulkStatusUpdateRequest {
+
+    private List<String> orderIds;
+    private String status;
+
+    // Getters and Setters
+    public List<String> getOrderIds() {
+        return orderIds;
+    }
+
+    public void setOrderIds(List<String> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,24 @@
+package com.cloud_based.supply_chain.orderservice.dto;
+
+public class OrderLineRequest {
+
+    private String productId;
+    private int quantity;
+
+    // Getters and Setters
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
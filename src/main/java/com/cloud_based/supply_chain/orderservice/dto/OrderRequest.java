@@ -3,10 +3,19 @@ package com.cloud_based.supply_chain.orderservice.dto;
 import java.util.List;
 
 public class OrderRequest {
-    private List<String> productIds;
+    private List<OrderLineRequest> lines;
+    private List<String> productIds; // Legacy: one entry per unit, still accepted when lines is absent
     private double totalPrice;
 
     // Getters and Setters
+    public List<OrderLineRequest> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<OrderLineRequest> lines) {
+        this.lines = lines;
+    }
+
     public List<String> getProductIds() {
         return productIds;
     }
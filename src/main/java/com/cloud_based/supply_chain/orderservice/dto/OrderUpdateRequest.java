@@ -4,11 +4,20 @@ import java.util.List;
 
 public class OrderUpdateRequest {
     
-    private List<String> productIds;
+    private List<OrderLineRequest> lines;
+    private List<String> productIds; // Legacy: one entry per unit, still accepted when lines is absent
     private double totalPrice;
     private String orderStatus;
 
     // Getters and Setters
+    public List<OrderLineRequest> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<OrderLineRequest> lines) {
+        this.lines = lines;
+    }
+
     public List<String> getProductIds() {
         return productIds;
     }
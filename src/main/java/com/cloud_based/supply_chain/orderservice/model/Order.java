@@ -1,11 +1,25 @@
 package com.cloud_based.supply_chain.orderservice.model;
 
+import java.time.Instant;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Document(collection = "orders")
+@CompoundIndexes({
+    // Order history pages, newest first, with and without a status filter
+    @CompoundIndex(name = "userId_orderDate", def = "{'userId': 1, 'orderDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "userId_status_orderDate", def = "{'userId': 1, 'orderStatus': 1, 'orderDate': -1, '_id': -1}"),
+    // Admin queries across users, e.g. all PENDING orders placed before some time
+    @CompoundIndex(name = "status_orderDate", def = "{'orderStatus': 1, 'orderDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "orderDate", def = "{'orderDate': -1, '_id': -1}")
+})
 public class Order {
 
     @Id
@@ -13,20 +27,29 @@ public class Order {
 
     private String userId;
 
-    private List<String> productIds; // List of product IDs from InventoryService
+    private List<OrderLine> lines; // One entry per distinct product
+
+    // Legacy encoding that repeated a product ID once per unit. Only present on documents written
+    // before line items; they are converted to lines on read (LegacyOrderMappingConfig) and
+    // rewritten in the background (LegacyOrderMigrator).
+    @JsonIgnore
+    private List<String> productIds;
 
-    private String orderStatus; // For example: "Pending", "Completed", "Cancelled"
+    private OrderStatus orderStatus;
 
     private double totalPrice;
 
-    private String orderDate;
+    private Instant orderDate; // When the order was placed; older documents stored a yyyy-MM-dd string
+
+    @Version
+    private Long version; // Bumped by every write; the order's ETag
 
     public Order() {
     }
 
-    public Order(String userId, List<String> productIds, String orderStatus, double totalPrice, String orderDate) {
+    public Order(String userId, List<OrderLine> lines, OrderStatus orderStatus, double totalPrice, Instant orderDate) {
         this.userId = userId;
-        this.productIds = productIds;
+        this.lines = lines;
         this.orderStatus = orderStatus;
         this.totalPrice = totalPrice;
         this.orderDate = orderDate;
@@ -40,6 +63,14 @@ public class Order {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getUserId() {
         return userId;
     }
@@ -48,6 +79,14 @@ public class Order {
         this.userId = userId;
     }
 
+    public List<OrderLine> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<OrderLine> lines) {
+        this.lines = lines;
+    }
+
     public List<String> getProductIds() {
         return productIds;
     }
@@ -56,11 +95,11 @@ public class Order {
         this.productIds = productIds;
     }
 
-    public String getOrderStatus() {
+    public OrderStatus getOrderStatus() {
         return orderStatus;
     }
 
-    public void setOrderStatus(String orderStatus) {
+    public void setOrderStatus(OrderStatus orderStatus) {
         this.orderStatus = orderStatus;
     }
 
@@ -72,11 +111,11 @@ public class Order {
         this.totalPrice = totalPrice;
     }
 
-    public String getOrderDate() {
+    public Instant getOrderDate() {
         return orderDate;
     }
 
-    public void setOrderDate(String orderDate) {
+    public void setOrderDate(Instant orderDate) {
         this.orderDate = orderDate;
     }
 }
@@ -0,0 +1,59 @@
+package com.cloud_based.supply_chain.orderservice.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// One product of an order with its quantity and the unit price at the time the order was placed
+public class OrderLine {
+
+    private String productId;
+
+    private int quantity;
+
+    private double unitPrice;
+
+    public OrderLine() {
+    }
+
+    public OrderLine(String productId, int quantity, double unitPrice) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+
+    // Lines for the legacy encoding that repeats a product ID once per unit. The price paid was
+    // never recorded for those orders, so their unit price is 0.
+    public static List<OrderLine> fromProductIds(List<String> productIds) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        productIds.forEach(productId -> quantities.merge(productId, 1, Integer::sum));
+        List<OrderLine> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> lines.add(new OrderLine(productId, quantity, 0)));
+        return lines;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(double unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+}
@@ -0,0 +1,7 @@
+package com.cloud_based.supply_chain.orderservice.model;
+
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    CANCELLED
+}
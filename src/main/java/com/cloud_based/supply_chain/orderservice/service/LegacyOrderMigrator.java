@@ -0,0 +1,158 @@
+package com.cloud_based.supply_chain.orderservice.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.cloud_based.supply_chain.orderservice.model.OrderLine;
+
+// Rewrites orders stored in older shapes, one batch per write: repeated productIds become line
+// items and yyyy-MM-dd string dates become real dates, so range queries and the orderDate indexes
+// see every order. Orders stored before they had a version are given version 0. Reads convert such orders on the fly (LegacyOrderMappingConfig), so this only
+// changes what is stored. Each update is conditional on the legacy value it read, so an order saved
+// in the meantime is left alone. The job stops checking once a pass's queries come back empty; a
+// batch in which nothing could be updated ends the pass early and is retried on the next one.
+@Component
+@ConditionalOnProperty(name = "orders.legacy-migration.enabled", havingValue = "true", matchIfMissing = true)
+public class LegacyOrderMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyOrderMigrator.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${orders.legacy-migration.batch-size:500}")
+    private int batchSize;
+
+    private volatile boolean finished;
+
+    @Scheduled(initialDelayString = "${orders.legacy-migration.initial-delay-ms:30000}",
+            fixedDelayString = "${orders.legacy-migration.interval-ms:60000}")
+    public void migrate() {
+        if (finished) {
+            return;
+        }
+
+        Pass versions = backfillVersions();
+        if (versions.migrated > 0) {
+            logger.info("Gave {} orders their first version", versions.migrated);
+        }
+        Pass lines = migrateLines();
+        Pass dates = migrateDates();
+        if (lines.migrated > 0 || dates.migrated > 0) {
+            logger.info("Migrated {} orders to line items and {} order dates to timestamps", lines.migrated,
+                    dates.migrated);
+        }
+        if (versions.drained && lines.drained && dates.drained) {
+            logger.info("No legacy orders left, stopping the migration");
+            finished = true;
+        }
+    }
+
+    private Pass backfillVersions() {
+        Pass pass = new Pass();
+        while (true) {
+            Query query = new Query(Criteria.where("version").exists(false)).limit(batchSize);
+            query.fields().include("_id");
+            List<Object> ids = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Order.class))
+                    .stream()
+                    .map(document -> document.get("_id"))
+                    .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                pass.drained = true;
+                return pass;
+            }
+
+            long modified = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(ids).and("version").exists(false)),
+                    Update.update("version", 0L), Order.class).getModifiedCount();
+            pass.migrated += modified;
+            if (modified == 0) {
+                return pass;
+            }
+        }
+    }
+
+    private Pass migrateLines() {
+        Pass pass = new Pass();
+        while (true) {
+            Query query = new Query(Criteria.where("productIds").ne(null)).limit(batchSize);
+            query.fields().include("productIds");
+            List<Document> legacyOrders = mongoTemplate.find(query, Document.class,
+                    mongoTemplate.getCollectionName(Order.class));
+            if (legacyOrders.isEmpty()) {
+                pass.drained = true;
+                return pass;
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+            for (Document legacyOrder : legacyOrders) {
+                List<String> productIds = legacyOrder.getList("productIds", String.class);
+                bulk.updateOne(
+                        new Query(Criteria.where("_id").is(legacyOrder.get("_id")).and("productIds").is(productIds)),
+                        new Update().set("lines", OrderLine.fromProductIds(productIds)).unset("productIds"));
+            }
+            long modified = bulk.execute().getModifiedCount();
+            pass.migrated += modified;
+            if (modified == 0) {
+                return pass; // The same orders would be found again
+            }
+        }
+    }
+
+    // The conversion runs server-side as a pipeline update, so dates are never read into the app
+    private Pass migrateDates() {
+        Pass pass = new Pass();
+        while (true) {
+            Query query = new Query(stringOrderDate()).limit(batchSize);
+            query.fields().include("_id");
+            List<Object> ids = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Order.class))
+                    .stream()
+                    .map(document -> document.get("_id"))
+                    .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                pass.drained = true;
+                return pass;
+            }
+
+            AggregationUpdate toDate = AggregationUpdate.update()
+                    .set("orderDate").toValue(ConvertOperators.valueOf("orderDate").convertToDate());
+            long modified = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(ids).andOperator(stringOrderDate())), toDate, Order.class)
+                    .getModifiedCount();
+            pass.migrated += modified;
+            if (modified == 0) {
+                return pass;
+            }
+        }
+    }
+
+    private static Criteria stringOrderDate() {
+        return Criteria.where("orderDate").type(JsonSchemaObject.Type.stringType());
+    }
+
+    // Outcome of one pass over a kind of legacy order
+    private static final class Pass {
+
+        private long migrated;
+
+        private boolean drained; // The last query found nothing left
+    }
+}
@@ -1,56 +1,101 @@
 package com.cloud_based.supply_chain.orderservice.service;
 
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.analyticsservice.service.SalesRollupService;
+import com.cloud_based.supply_chain.common.dto.CursorPage;
 import com.cloud_based.supply_chain.orderservice.Repository.OrderRepository;
+import com.cloud_based.supply_chain.orderservice.client.InventoryGateway;
+import com.cloud_based.supply_chain.orderservice.dto.BulkOrderResult;
+import com.cloud_based.supply_chain.orderservice.dto.OrderLineRequest;
+import com.cloud_based.supply_chain.orderservice.dto.OrderRequest;
 import com.cloud_based.supply_chain.orderservice.dto.OrderUpdateRequest;
 import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.cloud_based.supply_chain.orderservice.model.OrderLine;
+import com.cloud_based.supply_chain.orderservice.model.OrderStatus;
 import com.cloud_based.supply_chain.orderservice.exception.InvalidOrderStatusException;
 import com.cloud_based.supply_chain.orderservice.exception.InsufficientInventoryException;
 
+import com.mongodb.bulk.BulkWriteError;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    private static final String STATUS_BATCH_FIELD = "statusBatchId"; // See claimStatus
+
     @Autowired
     private OrderRepository orderRepository;
 
-    private final String INVENTORY_SERVICE_URL = "http://localhost:8081/api/products";
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private InventoryGateway inventoryGateway;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private SalesRollupService salesRollupService;
 
-    public enum OrderStatus {
-        PENDING,
-        CONFIRMED,
-        CANCELLED
+    // Fetch all products referenced by an order in a single round trip, keyed by ID
+    private Map<String, Product> fetchProducts(Collection<String> productIds) {
+        return inventoryGateway.getProducts(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
     }
 
     // Validate product IDs and their quantities
-    private Map<String, Integer> validateProducts(List<String> productIds) {
-        // Count occurrences of each product ID
-        Map<String, Long> productCountMap = productIds.stream()
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-        
+    private Map<String, Product> validateProducts(Map<String, Integer> productQuantities) {
+        Map<String, Product> products = fetchProducts(productQuantities.keySet());
+
+        // Report every unknown product at once
+        List<String> missingProductIds = productQuantities.keySet().stream()
+                .filter(productId -> !products.containsKey(productId))
+                .sorted()
+                .collect(Collectors.toList());
+        if (!missingProductIds.isEmpty()) {
+            throw new IllegalArgumentException("Products not found: " + missingProductIds);
+        }
+
         // Validate each product and its quantity
-        for (Map.Entry<String, Long> entry : productCountMap.entrySet()) {
+        for (Map.Entry<String, Integer> entry : productQuantities.entrySet()) {
             String productId = entry.getKey();
-            Long requiredQuantity = entry.getValue();
-            
-            String url = INVENTORY_SERVICE_URL + "/product-details/" + productId;
-            Product product = restTemplate.getForObject(url, Product.class);
-            
-            if (product == null) {
-                throw new IllegalArgumentException("Product not found: " + productId);
-            }
-            
+            int requiredQuantity = entry.getValue();
+            Product product = products.get(productId);
+
             if (product.getQuantity() < requiredQuantity) {
                 throw new InsufficientInventoryException(
                     String.format("Insufficient quantity for product %s. Required: %d, Available: %d",
@@ -58,28 +103,225 @@ public class OrderService {
                 );
             }
         }
-        
-        return productCountMap.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().intValue()));
+
+        return products;
+    }
+
+    // Quantity per distinct product of a request. Lines are the normal form; clients that still
+    // send the legacy repeated productIds are counted once here, at the edge.
+    static Map<String, Integer> requestedQuantities(List<OrderLineRequest> lines, List<String> productIds) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        if (lines != null) {
+            for (OrderLineRequest line : lines) {
+                if (line.getProductId() == null || line.getQuantity() <= 0) {
+                    throw new IllegalArgumentException("Invalid order line for product: " + line.getProductId());
+                }
+                quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+            }
+        } else if (productIds != null) {
+            productIds.forEach(productId -> quantities.merge(productId, 1, Integer::sum));
+        }
+        return quantities;
+    }
+
+    // Quantity per product of a stored order
+    static Map<String, Integer> quantitiesOf(Order order) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        order.getLines().forEach(line -> quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+        return quantities;
+    }
+
+    // Order lines with the current unit price of each product; fails if a product does not exist
+    private List<OrderLine> priceLines(Map<String, Integer> productQuantities, Map<String, Product> products) {
+        List<String> missingProductIds = productQuantities.keySet().stream()
+                .filter(productId -> !products.containsKey(productId))
+                .sorted()
+                .collect(Collectors.toList());
+        if (!missingProductIds.isEmpty()) {
+            throw new IllegalArgumentException("Products not found: " + missingProductIds);
+        }
+        List<OrderLine> lines = new ArrayList<>(productQuantities.size());
+        productQuantities.forEach((productId, quantity) ->
+                lines.add(new OrderLine(productId, quantity, products.get(productId).getPrice())));
+        return lines;
     }
 
     // Create a new order
-    public Order createOrder(String userId, List<String> productIds, double totalPrice) {
-        // Validate products and their quantities
-        validateProducts(productIds);
-        
-        // Create order with initial PENDING status
-        Order order = new Order(userId, productIds, OrderStatus.PENDING.name(), 
-                              totalPrice, java.time.LocalDate.now().toString());
-        return orderRepository.save(order);
+    public Order createOrder(String userId, OrderRequest orderRequest) {
+        return createOrder(userId, requestedQuantities(orderRequest.getLines(), orderRequest.getProductIds()),
+                orderRequest.getTotalPrice());
+    }
+
+    public Order createOrder(String userId, Map<String, Integer> productQuantities, double totalPrice) {
+        if (productQuantities.isEmpty()) {
+            throw new IllegalArgumentException("Order has no products");
+        }
+        List<OrderLine> lines = priceLines(productQuantities, fetchProducts(productQuantities.keySet()));
+
+        // Create order with initial PENDING status; the ID is assigned up front so stock can be held for it
+        Order order = new Order(userId, lines, OrderStatus.PENDING, 
+                              totalPrice, Instant.now());
+        order.setId(new ObjectId().toHexString());
+
+        // Hold the stock; this both validates the quantities and keeps them for the order
+        holdProducts(order.getId(), productQuantities);
+        try {
+            return orderRepository.save(order);
+        } catch (RuntimeException e) {
+            inventoryGateway.releaseHold(order.getId());
+            throw e;
+        }
+    }
+
+    // Create many orders for one user at once. Quantities are checked once per distinct product
+    // across the whole batch, stock for all accepted orders is held with one bulk write and the
+    // orders are stored with one unordered bulk insert. Entries are accepted in submission order while stock
+    // lasts; every entry gets its own result.
+    public List<BulkOrderResult> createOrders(String userId, List<OrderRequest> orderRequests) {
+        List<BulkOrderResult> results = new ArrayList<>(Collections.nCopies(orderRequests.size(), null));
+
+        List<Map<String, Integer>> requestedQuantities = new ArrayList<>(orderRequests.size());
+        Set<String> allProductIds = new HashSet<>();
+        for (OrderRequest request : orderRequests) {
+            Map<String, Integer> productQuantities;
+            try {
+                productQuantities = requestedQuantities(request.getLines(), request.getProductIds());
+            } catch (IllegalArgumentException e) {
+                productQuantities = null;
+            }
+            requestedQuantities.add(productQuantities);
+            if (productQuantities != null) {
+                allProductIds.addAll(productQuantities.keySet());
+            }
+        }
+        Map<String, Product> products = fetchProducts(allProductIds);
+        Map<String, Integer> remaining = products.values().stream()
+                .collect(Collectors.toMap(Product::getId, Product::getQuantity));
+
+        List<Order> accepted = new ArrayList<>();
+        Map<String, Integer> indexByOrderId = new HashMap<>();
+        Map<String, Map<String, Integer>> quantitiesByOrder = new LinkedHashMap<>();
+        for (int i = 0; i < orderRequests.size(); i++) {
+            OrderRequest request = orderRequests.get(i);
+            Map<String, Integer> productQuantities = requestedQuantities.get(i);
+            if (productQuantities == null) {
+                results.set(i, BulkOrderResult.failed(i, null, "Invalid order lines"));
+                continue;
+            }
+            if (productQuantities.isEmpty()) {
+                results.set(i, BulkOrderResult.failed(i, null, "Order has no products"));
+                continue;
+            }
+
+            List<String> missingProductIds = productQuantities.keySet().stream()
+                    .filter(productId -> !products.containsKey(productId))
+                    .sorted()
+                    .collect(Collectors.toList());
+            if (!missingProductIds.isEmpty()) {
+                results.set(i, BulkOrderResult.failed(i, null, "Products not found: " + missingProductIds));
+                continue;
+            }
+            List<String> shortProductIds = productQuantities.entrySet().stream()
+                    .filter(entry -> remaining.get(entry.getKey()) < entry.getValue())
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .collect(Collectors.toList());
+            if (!shortProductIds.isEmpty()) {
+                results.set(i, BulkOrderResult.failed(i, null, "Insufficient quantity for products: " + shortProductIds));
+                continue;
+            }
+
+            productQuantities.forEach((productId, quantity) -> remaining.merge(productId, -quantity, Integer::sum));
+            Order order = new Order(userId, priceLines(productQuantities, products), OrderStatus.PENDING,
+                    request.getTotalPrice(), Instant.now());
+            order.setId(new ObjectId().toHexString());
+            accepted.add(order);
+            indexByOrderId.put(order.getId(), i);
+            quantitiesByOrder.put(order.getId(), productQuantities);
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        List<String> failedProductIds = inventoryGateway.holdStockBatch(new ObjectId().toHexString(), quantitiesByOrder);
+        if (!failedProductIds.isEmpty()) {
+            // Stock moved since it was read: fall back to holding order by order
+            Iterator<Order> iterator = accepted.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                List<String> failedForOrder = inventoryGateway.holdStock(order.getId(), quantitiesByOrder.get(order.getId()));
+                if (!failedForOrder.isEmpty()) {
+                    int index = indexByOrderId.get(order.getId());
+                    results.set(index, BulkOrderResult.failed(index, null,
+                            "Insufficient quantity for products: " + failedForOrder));
+                    iterator.remove();
+                }
+            }
+        }
+
+        Set<String> storedOrderIds = insertOrders(accepted);
+        for (Order order : accepted) {
+            int index = indexByOrderId.get(order.getId());
+            if (storedOrderIds == null) {
+                // Outcome unknown: keep the hold, which expires unless the order turns out to exist
+                results.set(index, BulkOrderResult.failed(index, null, "Could not store order"));
+            } else if (storedOrderIds.contains(order.getId())) {
+                results.set(index, BulkOrderResult.succeeded(index, order.getId()));
+            } else {
+                inventoryGateway.releaseHold(order.getId());
+                results.set(index, BulkOrderResult.failed(index, null, "Could not store order"));
+            }
+        }
+        return results;
+    }
+
+    // Insert the orders with one unordered bulk write and return the IDs of those that were stored,
+    // or null if that cannot be told. The inserts are independent, so a failed one does not stop
+    // the others: a bulk error lists exactly the rejected ones, and after any other error the
+    // orders are looked up.
+    private Set<String> insertOrders(List<Order> orders) {
+        orders.forEach(order -> order.setVersion(0L));
+        Set<String> orderIds = orders.stream().map(Order::getId).collect(Collectors.toCollection(HashSet::new));
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class).insert(orders).execute();
+            return orderIds;
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                orderIds.remove(orders.get(error.getIndex()).getId());
+            }
+            logger.warn("{} of {} orders could not be stored", e.getErrors().size(), orders.size(), e);
+            return orderIds;
+        } catch (RuntimeException e) {
+            logger.warn("Storing {} orders failed, looking up which were stored", orders.size(), e);
+        }
+        try {
+            Query query = new Query(Criteria.where("_id").in(orderIds));
+            query.fields().include("_id");
+            return mongoTemplate.find(query, Order.class).stream().map(Order::getId).collect(Collectors.toSet());
+        } catch (RuntimeException e) {
+            logger.error("Could not tell which of {} orders were stored; their holds are left to expire", orders.size(), e);
+            return null;
+        }
+    }
+
+    // Hold stock for a PENDING order, or fail with the same errors validateProducts reports
+    private void holdProducts(String orderId, Map<String, Integer> productQuantities) {
+        List<String> failedProductIds = inventoryGateway.holdStock(orderId, productQuantities);
+        if (!failedProductIds.isEmpty()) {
+            // Work out the precise reason only on the failure path
+            validateProducts(productQuantities);
+            throw new InsufficientInventoryException("Insufficient quantity for products: " + failedProductIds);
+        }
     }
 
-    // Update order status
+    // Update order status. The new status is written first, conditional on the status and version
+    // that were read, so of two concurrent updates only one gets to change the stock; if the stock
+    // change then fails, the status is put back.
     public Order updateOrderStatus(String orderId, String newStatus) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
 
-        OrderStatus currentStatus = OrderStatus.valueOf(order.getOrderStatus());
+        OrderStatus currentStatus = order.getOrderStatus();
         OrderStatus targetStatus = OrderStatus.valueOf(newStatus);
 
         // Validate status transition
@@ -89,20 +331,206 @@ public class OrderService {
             );
         }
 
+        Order saved = claim(order, Update.update("orderStatus", targetStatus));
+
         // Handle quantity updates based on status change
+        try {
+            if (targetStatus == OrderStatus.CONFIRMED) {
+                // Turn the hold into a decrement; if it has expired, take the stock now.
+                // The inventory side refuses the whole order if any product is short.
+                if (!inventoryGateway.confirmHold(orderId)) {
+                    Map<String, Integer> productQuantities = quantitiesOf(order);
+                    reduceProductQuantities(orderId, productQuantities);
+                }
+            } else if (targetStatus == OrderStatus.CANCELLED && currentStatus == OrderStatus.PENDING) {
+                // Give back the stock held for the pending order
+                inventoryGateway.releaseHold(orderId);
+            } else if (targetStatus == OrderStatus.CANCELLED && currentStatus == OrderStatus.CONFIRMED) {
+                // Restore quantities only if cancelling a confirmed order
+                Map<String, Integer> productQuantities = quantitiesOf(order);
+                restoreProductQuantities(orderId, productQuantities);
+            }
+        } catch (RuntimeException e) {
+            unclaim(saved, Update.update("orderStatus", currentStatus), e);
+            throw e;
+        }
+
         if (targetStatus == OrderStatus.CONFIRMED) {
-            // Revalidate quantities and reduce them
-            Map<String, Integer> productQuantities = validateProducts(order.getProductIds());
-            reduceProductQuantities(productQuantities);
-        } else if (targetStatus == OrderStatus.CANCELLED && currentStatus == OrderStatus.CONFIRMED) {
-            // Restore quantities only if cancelling a confirmed order
-            Map<String, Integer> productQuantities = order.getProductIds().stream()
-                    .collect(Collectors.groupingBy(Function.identity(), Collectors.collectingAndThen(Collectors.counting(), Long::intValue)));
-            restoreProductQuantities(productQuantities);
+            salesRollupService.recordConfirmed(List.of(saved));
+        } else if (currentStatus == OrderStatus.CONFIRMED) {
+            salesRollupService.recordReversed(List.of(saved));
+        }
+        return saved;
+    }
+
+    // Move many orders to the same status at once. The orders are first claimed with one bulk write
+    // that only moves those still PENDING at the version that was read; the stock changes of the
+    // claimed orders are then summed per product and applied with one bulk inventory write. Orders
+    // that are missing, not in a valid state, changed concurrently or short of stock get their own
+    // failed result; the rest of the batch still goes through.
+    public List<BulkOrderResult> updateOrderStatuses(List<String> orderIds, String newStatus) {
+        OrderStatus targetStatus = OrderStatus.valueOf(newStatus);
+        List<BulkOrderResult> results = new ArrayList<>(Collections.nCopies(orderIds.size(), null));
+        Map<String, Order> orders = new HashMap<>();
+        orderRepository.findAllById(new HashSet<>(orderIds)).forEach(order -> orders.put(order.getId(), order));
+
+        Map<String, Integer> indexByOrderId = new LinkedHashMap<>();
+        for (int i = 0; i < orderIds.size(); i++) {
+            String orderId = orderIds.get(i);
+            Order order = orders.get(orderId);
+            if (order == null) {
+                results.set(i, BulkOrderResult.failed(i, orderId, "Order not found: " + orderId));
+            } else if (indexByOrderId.containsKey(orderId)) {
+                results.set(i, BulkOrderResult.failed(i, orderId, "Duplicate order in batch"));
+            } else if (!isValidStatusTransition(order.getOrderStatus(), targetStatus)) {
+                results.set(i, BulkOrderResult.failed(i, orderId, String.format(
+                        "Invalid status transition from %s to %s", order.getOrderStatus(), targetStatus)));
+            } else {
+                indexByOrderId.put(orderId, i);
+            }
+        }
+        if (indexByOrderId.isEmpty()) {
+            return results;
+        }
+
+        String batchId = new ObjectId().toHexString();
+        Set<String> accepted = claimStatus(batchId, indexByOrderId.keySet(), orders, targetStatus);
+        indexByOrderId.forEach((orderId, index) -> {
+            if (!accepted.contains(orderId)) {
+                results.set(index, BulkOrderResult.failed(index, orderId, "Order was changed concurrently"));
+            }
+        });
+
+        // If the inventory side fails, the claimed orders whose stock change is not known to be
+        // done go back to PENDING before the error is passed on
+        Set<String> settled = new HashSet<>();
+        List<String> shortOrderIds = List.of();
+        try {
+            if (targetStatus == OrderStatus.CONFIRMED) {
+                // Live holds become decrements in one write; orders whose hold expired take stock now
+                Set<String> unheld = new HashSet<>(accepted);
+                for (String orderId : inventoryGateway.confirmHolds(batchId, accepted)) {
+                    unheld.remove(orderId);
+                    settled.add(orderId);
+                }
+                shortOrderIds = reduceProductQuantities(batchId, unheld, orders, settled);
+            } else if (targetStatus == OrderStatus.CANCELLED && !accepted.isEmpty()) {
+                // Only PENDING orders can be cancelled, so giving back their holds is all there is to do
+                inventoryGateway.releaseHolds(batchId, accepted);
+            }
+        } catch (RuntimeException e) {
+            Set<String> unsettled = new HashSet<>(accepted);
+            unsettled.removeAll(settled);
+            unclaimStatus(unsettled, orders, targetStatus);
+            if (!settled.isEmpty()) {
+                recordSettled(settled, orders, e);
+            }
+            throw e;
         }
 
-        order.setOrderStatus(targetStatus.name());
-        return orderRepository.save(order);
+        if (targetStatus == OrderStatus.CONFIRMED) {
+            for (String orderId : shortOrderIds) {
+                int index = indexByOrderId.get(orderId);
+                results.set(index, BulkOrderResult.failed(index, orderId, "Insufficient quantity for products"));
+                accepted.remove(orderId);
+            }
+            unclaimStatus(shortOrderIds, orders, targetStatus);
+            salesRollupService.recordConfirmed(accepted.stream().map(orders::get).collect(Collectors.toList()));
+        }
+
+        accepted.forEach(orderId -> {
+            int index = indexByOrderId.get(orderId);
+            results.set(index, BulkOrderResult.succeeded(index, orderId));
+        });
+        return results;
+    }
+
+    // Move the orders from PENDING to the target status, each only if it still has the version that
+    // was read, and return those that were moved. A bulk result only has counts, so the moved orders
+    // are tagged with the batch and read back by it; the tag is not mapped and the next save of the
+    // order drops it. The given orders are updated to what was stored.
+    private Set<String> claimStatus(String batchId, Collection<String> orderIds, Map<String, Order> orders,
+            OrderStatus targetStatus) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        for (String orderId : orderIds) {
+            bulk.updateOne(new Query(Criteria.where("_id").is(orderId)
+                            .and("orderStatus").is(OrderStatus.PENDING)
+                            .and("version").is(orders.get(orderId).getVersion())),
+                    Update.update("orderStatus", targetStatus).set(STATUS_BATCH_FIELD, batchId).inc("version", 1));
+        }
+        bulk.execute();
+
+        Query claimed = new Query(Criteria.where("_id").in(orderIds).and(STATUS_BATCH_FIELD).is(batchId));
+        claimed.fields().include("_id");
+        Set<String> claimedOrderIds = mongoTemplate.find(claimed, Order.class).stream()
+                .map(Order::getId)
+                .collect(Collectors.toCollection(HashSet::new));
+        claimedOrderIds.forEach(orderId -> {
+            Order order = orders.get(orderId);
+            order.setOrderStatus(targetStatus);
+            order.setVersion(order.getVersion() + 1);
+        });
+        return claimedOrderIds;
+    }
+
+    // Roll up the orders a failed batch did confirm, which stay CONFIRMED
+    private void recordSettled(Set<String> orderIds, Map<String, Order> orders, RuntimeException cause) {
+        try {
+            salesRollupService.recordConfirmed(orderIds.stream().map(orders::get).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    // Put claimed orders whose stock change failed back to PENDING
+    private void unclaimStatus(Collection<String> orderIds, Map<String, Order> orders, OrderStatus targetStatus) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        for (String orderId : orderIds) {
+            Order order = orders.get(orderId);
+            bulk.updateOne(new Query(Criteria.where("_id").is(orderId)
+                            .and("orderStatus").is(targetStatus)
+                            .and("version").is(order.getVersion())),
+                    Update.update("orderStatus", OrderStatus.PENDING).unset(STATUS_BATCH_FIELD).inc("version", 1));
+            order.setOrderStatus(OrderStatus.PENDING);
+            order.setVersion(order.getVersion() + 1);
+        }
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            logger.error("Orders {} are {} without their stock change and could not be put back to PENDING",
+                    orderIds, targetStatus, e);
+        }
+    }
+
+    // Take the summed stock of several orders in one guarded write. If any product is short, fall
+    // back to order by order so only the orders that cannot be served fail. Returns those orders;
+    // the orders whose stock was taken are added to settled as soon as it is.
+    private List<String> reduceProductQuantities(String batchId, Set<String> orderIds, Map<String, Order> orders,
+            Set<String> settled) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> totals = new HashMap<>();
+        orderIds.forEach(orderId -> quantitiesOf(orders.get(orderId))
+                .forEach((productId, quantity) -> totals.merge(productId, -quantity, Integer::sum)));
+        if (inventoryGateway.adjustStock(batchId + ":reduce", StockChangeReason.REDUCE, null, totals).isEmpty()) {
+            settled.addAll(orderIds);
+            return List.of();
+        }
+
+        List<String> failedOrderIds = new ArrayList<>();
+        for (String orderId : orderIds) {
+            try {
+                reduceProductQuantities(orderId, quantitiesOf(orders.get(orderId)));
+                settled.add(orderId);
+            } catch (InsufficientInventoryException e) {
+                failedOrderIds.add(orderId);
+            }
+        }
+        return failedOrderIds;
     }
 
     private boolean isValidStatusTransition(OrderStatus current, OrderStatus target) {
@@ -117,50 +545,144 @@ public class OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
 
-        // Only restore quantities if the order was CONFIRMED
-        if (OrderStatus.valueOf(order.getOrderStatus()) == OrderStatus.CONFIRMED) {
-            Map<String, Integer> productQuantities = order.getProductIds().stream()
-                    .collect(Collectors.groupingBy(Function.identity(), Collectors.collectingAndThen(Collectors.counting(), Long::intValue)));
-            restoreProductQuantities(productQuantities);
+        // Release the hold of a PENDING order, restore quantities of a CONFIRMED one
+        OrderStatus status = order.getOrderStatus();
+        if (status == OrderStatus.PENDING) {
+            inventoryGateway.releaseHold(orderId);
+        } else if (status == OrderStatus.CONFIRMED) {
+            Map<String, Integer> productQuantities = quantitiesOf(order);
+            restoreProductQuantities(orderId, productQuantities);
         }
 
         orderRepository.deleteById(orderId);
+        if (status == OrderStatus.CONFIRMED) {
+            salesRollupService.recordReversed(List.of(order));
+        }
         return true;
     }
 
-    private void reduceProductQuantities(Map<String, Integer> productQuantities) {
-        for (Map.Entry<String, Integer> entry : productQuantities.entrySet()) {
-            String productId = entry.getKey();
-            int quantityToReduce = entry.getValue();
+    private void reduceProductQuantities(String orderId, Map<String, Integer> productQuantities) {
+        Map<String, Integer> quantityDeltas = productQuantities.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> -e.getValue()));
 
-            String url = INVENTORY_SERVICE_URL + "/product-details/" + productId;
-            Product product = restTemplate.getForObject(url, Product.class);
+        List<String> failedProductIds = inventoryGateway.adjustStock(orderId + ":reduce", StockChangeReason.REDUCE, orderId,
+                quantityDeltas);
+        if (!failedProductIds.isEmpty()) {
+            throw new InsufficientInventoryException("Insufficient quantity for products: " + failedProductIds);
+        }
+    }
 
-            if (product != null) {
-                product.setQuantity(product.getQuantity() - quantityToReduce);
-                restTemplate.put(INVENTORY_SERVICE_URL + "/update-product/" + productId, product);
-            }
+    private void restoreProductQuantities(String orderId, Map<String, Integer> productQuantities) {
+        // Increments are unguarded; only products deleted in the meantime can fail, and those are skipped
+        List<String> failedProductIds = inventoryGateway.adjustStock(orderId + ":restore", StockChangeReason.RESTORE, orderId,
+                productQuantities);
+        if (!failedProductIds.isEmpty()) {
+            // Retry without the vanished products so the remaining stock is still restored
+            Map<String, Integer> remaining = new HashMap<>(productQuantities);
+            failedProductIds.forEach(remaining::remove);
+            inventoryGateway.adjustStock(orderId + ":restore", StockChangeReason.RESTORE, orderId, remaining);
         }
     }
 
-    private void restoreProductQuantities(Map<String, Integer> productQuantities) {
-        for (Map.Entry<String, Integer> entry : productQuantities.entrySet()) {
-            String productId = entry.getKey();
-            int quantityToRestore = entry.getValue();
+    // Other existing methods...
+    public List<Order> getOrdersByUserId(String userId) {
+        return orderRepository.findByUserId(userId);
+    }
 
-            String url = INVENTORY_SERVICE_URL + "/product-details/" + productId;
-            Product product = restTemplate.getForObject(url, Product.class);
+    // One page of a user's orders, newest first. Pages seek on (orderDate, _id) through the
+    // userId indexes, so the cost does not grow with the number of orders the user has.
+    // from/to are inclusive bounds, see orderDateRange; status is optional.
+    public CursorPage<Order> getOrdersPageByUserId(String userId, String status, String from, String to,
+            String after, int limit) {
+        return searchOrders(userId, status, from, to, after, limit);
+    }
 
-            if (product != null) {
-                product.setQuantity(product.getQuantity() + quantityToRestore);
-                restTemplate.put(INVENTORY_SERVICE_URL + "/update-product/" + productId, product);
+    // One page of orders across users, newest first, filtered by any of user, status and order
+    // date range. Every combination is served by one of the orderDate indexes and pages seek on
+    // (orderDate, _id), so "all PENDING orders placed before X" costs one page at a time.
+    public CursorPage<Order> searchOrders(String userId, String status, String from, String to,
+            String after, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (userId != null) {
+            filters.add(Criteria.where("userId").is(userId));
+        }
+        if (status != null) {
+            filters.add(Criteria.where("orderStatus").is(OrderStatus.valueOf(status.toUpperCase())));
+        }
+        if (from != null || to != null) {
+            filters.add(orderDateRange(from, to));
+        }
+        if (after != null) {
+            Object[] cursor = decodeCursor(after);
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("orderDate").lt(cursor[0]),
+                    Criteria.where("orderDate").is(cursor[0]).and("_id").lt(cursor[1])));
+        }
+
+        Query query = new Query(filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters))
+                .with(Sort.by(Sort.Direction.DESC, "orderDate", "_id"))
+                .limit(limit + 1);
+        List<Order> orders = mongoTemplate.find(query, Order.class);
+
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = orders.subList(0, limit);
+            Order last = orders.get(limit - 1);
+            nextCursor = encodeCursor(last.getOrderDate(), last.getId());
+        }
+        return new CursorPage<>(orders, nextCursor);
+    }
+
+    // Bounds are ISO-8601 instants or plain yyyy-MM-dd dates in UTC; a plain "to" date covers the
+    // whole day. Both bounds are inclusive.
+    private Criteria orderDateRange(String from, String to) {
+        Criteria range = Criteria.where("orderDate");
+        if (from != null) {
+            range = range.gte(parseDateBound(from, false));
+        }
+        if (to != null) {
+            range = range.lt(parseDateBound(to, true));
+        }
+        return range;
+    }
+
+    private Instant parseDateBound(String value, boolean upper) {
+        try {
+            if (value.length() == 10) {
+                LocalDate date = LocalDate.parse(value);
+                return (upper ? date.plusDays(1) : date).atStartOfDay(ZoneOffset.UTC).toInstant();
             }
+            Instant instant = Instant.parse(value);
+            return upper ? instant.plusMillis(1) : instant; // Stored dates have millisecond precision
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
         }
     }
 
-    // Other existing methods...
-    public List<Order> getOrdersByUserId(String userId) {
-        return orderRepository.findByUserId(userId);
+    private String encodeCursor(Instant orderDate, String orderId) {
+        String raw = orderDate.toEpochMilli() + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // The order date and ObjectId of the last order of the previous page
+    private Object[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (parts.length == 2 && ObjectId.isValid(parts[1])) {
+                return new Object[] { Instant.ofEpochMilli(Long.parseLong(parts[0])), new ObjectId(parts[1]) };
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below; NumberFormatException is an IllegalArgumentException
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
+    // Current version of an order without loading it; null when it does not exist
+    public Long getOrderVersion(String orderId) {
+        Query query = new Query(Criteria.where("_id").is(orderId));
+        query.fields().include("version");
+        Order order = mongoTemplate.findOne(query, Order.class);
+        return order == null ? null : order.getVersion();
     }
 
     public Order getOrderById(String orderId) {
@@ -173,14 +695,82 @@ public class OrderService {
                 .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
         
         // Only allow updates if order is in PENDING status
-        if (OrderStatus.valueOf(order.getOrderStatus()) != OrderStatus.PENDING) {
+        if (order.getOrderStatus() != OrderStatus.PENDING) {
             throw new InvalidOrderStatusException("Can only update orders in PENDING status");
         }
 
-        validateProducts(orderUpdateRequest.getProductIds());
-        
-        order.setProductIds(orderUpdateRequest.getProductIds());
-        order.setTotalPrice(orderUpdateRequest.getTotalPrice());
-        return orderRepository.save(order);
+        Map<String, Integer> productQuantities = requestedQuantities(orderUpdateRequest.getLines(),
+                orderUpdateRequest.getProductIds());
+        if (productQuantities.isEmpty()) {
+            throw new IllegalArgumentException("Order has no products");
+        }
+        List<OrderLine> lines = priceLines(productQuantities, fetchProducts(productQuantities.keySet()));
+
+        // Written before the hold is swapped, so a concurrent update or status change cannot
+        // interleave with the swap; the old lines are put back if the swap fails
+        Order updated = claim(order, new Update().set("lines", lines)
+                .set("totalPrice", orderUpdateRequest.getTotalPrice())
+                .unset("productIds"));
+
+        // Swap the hold over to the new lines, putting the old one back if that fails
+        Update oldLines = new Update().set("lines", order.getLines()).set("totalPrice", order.getTotalPrice());
+        boolean released;
+        try {
+            released = inventoryGateway.releaseHold(orderId);
+        } catch (RuntimeException e) {
+            // Whether the old hold is still there is unknown; at worst the order is left PENDING
+            // without one, like an order whose hold expired
+            unclaim(updated, oldLines, e);
+            throw e;
+        }
+        try {
+            holdProducts(orderId, productQuantities);
+        } catch (RuntimeException e) {
+            if (released) {
+                restoreHold(orderId, quantitiesOf(order), e);
+            }
+            unclaim(updated, oldLines, e);
+            throw e;
+        }
+        return updated;
+    }
+
+    // Apply the update only if the order still has the status and version that were read, and
+    // return it as stored
+    private Order claim(Order order, Update update) {
+        Query query = new Query(Criteria.where("_id").is(order.getId())
+                .and("orderStatus").is(order.getOrderStatus())
+                .and("version").is(order.getVersion()));
+        Order claimed = mongoTemplate.findAndModify(query, update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), Order.class);
+        if (claimed == null) {
+            throw new OptimisticLockingFailureException("Order " + order.getId() + " was changed concurrently");
+        }
+        return claimed;
+    }
+
+    // Undo a claim whose side effects failed; the order is left as it is if it changed since
+    private void unclaim(Order claimed, Update update, RuntimeException cause) {
+        try {
+            claim(claimed, update);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+            logger.error("Order {} could not be put back after its stock change failed", claimed.getId(), e);
+        }
+    }
+
+    // Put back a hold that was released for an update that then failed. If the stock is gone by
+    // now the order stays PENDING without a hold, like one whose hold expired: confirming it takes
+    // the stock then, or fails if there is not enough.
+    private void restoreHold(String orderId, Map<String, Integer> productQuantities, RuntimeException cause) {
+        try {
+            List<String> failedProductIds = inventoryGateway.holdStock(orderId, productQuantities);
+            if (!failedProductIds.isEmpty()) {
+                logger.warn("Could not restore the hold of order {}, short of products {}", orderId, failedProductIds);
+            }
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+            logger.warn("Could not restore the hold of order {}", orderId, e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package com.cloud_based.supply_chain.orderservice.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.orderservice.Repository.ReactiveOrderRepository;
+import com.cloud_based.supply_chain.orderservice.client.ReactiveInventoryClient;
+import com.cloud_based.supply_chain.orderservice.dto.OrderRequest;
+import com.cloud_based.supply_chain.orderservice.exception.InsufficientInventoryException;
+import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.cloud_based.supply_chain.orderservice.model.OrderLine;
+import com.cloud_based.supply_chain.orderservice.model.OrderStatus;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterpart of the read and create paths of OrderService ("reactive" profile)
+@Service
+@Profile("reactive")
+public class ReactiveOrderService {
+
+    @Autowired
+    private ReactiveOrderRepository reactiveOrderRepository;
+
+    @Autowired
+    private ReactiveInventoryClient reactiveInventoryClient;
+
+    // Create a new order: price the lines, hold the stock, then store the order; the hold is
+    // released if storing fails
+    public Mono<Order> createOrder(String userId, OrderRequest orderRequest) {
+        Map<String, Integer> productQuantities;
+        try {
+            productQuantities = OrderService.requestedQuantities(orderRequest.getLines(), orderRequest.getProductIds());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        if (productQuantities.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Order has no products"));
+        }
+
+        return reactiveInventoryClient.getProducts(productQuantities.keySet())
+                .flatMap(products -> {
+                    Map<String, Product> productsById = products.stream()
+                            .collect(Collectors.toMap(Product::getId, Function.identity()));
+                    List<String> missingProductIds = productQuantities.keySet().stream()
+                            .filter(productId -> !productsById.containsKey(productId))
+                            .sorted()
+                            .collect(Collectors.toList());
+                    if (!missingProductIds.isEmpty()) {
+                        return Mono.error(new IllegalArgumentException("Products not found: " + missingProductIds));
+                    }
+
+                    List<OrderLine> lines = new ArrayList<>(productQuantities.size());
+                    productQuantities.forEach((productId, quantity) ->
+                            lines.add(new OrderLine(productId, quantity, productsById.get(productId).getPrice())));
+                    Order order = new Order(userId, lines, OrderStatus.PENDING,
+                            orderRequest.getTotalPrice(), Instant.now());
+                    order.setId(new ObjectId().toHexString());
+
+                    return reactiveInventoryClient.holdStock(order.getId(), productQuantities)
+                            .flatMap(failedProductIds -> failedProductIds.isEmpty()
+                                    ? reactiveOrderRepository.save(order)
+                                            .onErrorResume(e -> reactiveInventoryClient.releaseHold(order.getId()).then(Mono.error(e)))
+                                    : Mono.error(new InsufficientInventoryException(
+                                            "Insufficient quantity for products: " + failedProductIds)));
+                });
+    }
+
+    public Flux<Order> getOrdersByUserId(String userId) {
+        return reactiveOrderRepository.findByUserId(userId);
+    }
+
+    public Mono<Order> getOrderById(String orderId) {
+        return reactiveOrderRepository.findById(orderId);
+    }
+}
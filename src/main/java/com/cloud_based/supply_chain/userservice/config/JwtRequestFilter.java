@@ -1,6 +1,7 @@
 package com.cloud_based.supply_chain.userservice.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -29,6 +30,11 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    // Where the principal comes from: "claims" (token only, no database access),
+    // "cached" (user lookup through a TTL cache) or "database" (user lookup on every request)
+    @Value("${security.principal-source:claims}")
+    private String principalSource;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
             HttpServletResponse response,
@@ -38,16 +44,18 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         String email = null;
         String jwtToken = null;
+        VerifiedToken verifiedToken = null;
 
         // JWT Token is in the form "Bearer token"
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             jwtToken = authorizationHeader.substring(7);
 
             try {
-                // Extract and validate only access tokens
-                email = jwtUtil.extractEmail(jwtToken);
-                String userId = jwtUtil.extractUserId(jwtToken);
-                Integer role = jwtUtil.extractRole(jwtToken);
+                // Verify the access token once; all claims come from the verified result
+                verifiedToken = jwtUtil.verify(jwtToken);
+                email = verifiedToken.getEmail();
+                String userId = verifiedToken.getUserId();
+                Integer role = verifiedToken.getRole();
 
                 // Add null check for email
                 if (email == null || email.trim().isEmpty()) {
@@ -57,9 +65,9 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 }
 
                 // Log or use userId and role as needed
-                logger.info("Extracted email: " + email);
-                logger.info("Extracted userId: " + userId);
-                logger.info("Extracted role: " + role);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Extracted email: " + email + ", userId: " + userId + ", role: " + role);
+                }
 
             } catch (ExpiredJwtException e) {
                 logger.error("JWT Token Expired.");
@@ -77,9 +85,9 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         // Authenticate the user if JWT is valid and user not yet authenticated
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = this.userDetailsService.loadUserByEmail(email);
+                UserDetails userDetails = loadUserDetails(verifiedToken);
 
-                if (jwtUtil.validateToken(jwtToken, email)) {
+                if (!verifiedToken.isExpired()) {
                     UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -91,4 +99,19 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response);
     }
+
+    private UserDetails loadUserDetails(VerifiedToken verifiedToken) {
+        // Services have no user record to look up
+        if (Integer.valueOf(JwtUtil.SERVICE_ROLE).equals(verifiedToken.getRole())) {
+            return userDetailsService.loadUserFromToken(verifiedToken);
+        }
+        switch (principalSource) {
+            case "database":
+                return userDetailsService.loadUserByEmail(verifiedToken.getEmail());
+            case "cached":
+                return userDetailsService.loadUserByEmailCached(verifiedToken.getEmail());
+            default:
+                return userDetailsService.loadUserFromToken(verifiedToken);
+        }
+    }
 }
@@ -1,22 +1,67 @@
 package com.cloud_based.supply_chain.userservice.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    // Role of tokens minted for calls between services; users are never given it (see UserService.changeRole)
+    public static final int SERVICE_ROLE = 3;
+
     private String SECRET_KEY = "your_secret_key"; // Replace with a strong secret key
     private String REFRESH_SECRET_KEY = "your_refresh_secret_key"; // Strong refresh key
 
+    // Parsers are immutable once configured, so build them once instead of per call
+    private final JwtParser accessTokenParser = Jwts.parser().setSigningKey(SECRET_KEY);
+    private final JwtParser refreshTokenParser = Jwts.parser().setSigningKey(REFRESH_SECRET_KEY);
+
+    // Access tokens that already passed verification, keyed by SHA-256 digest of the token.
+    // Each entry expires together with its token, so a cached hit is always still valid.
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long remainingMillis = token.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     // Generate Access Token with email, userId, and role
     public String generateToken(String email, String userId, Integer role) {
         Map<String, Object> claims = new HashMap<>();
@@ -26,6 +71,14 @@ public class JwtUtil {
         return createToken(claims, email, SECRET_KEY, 1000 * 60 * 60); // 1 hour access token
     }
 
+    // Generate an access token for another service of this application, named by the subject
+    public String generateServiceToken(String serviceName) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", SERVICE_ROLE);
+        claims.put("sub", serviceName);
+        return createToken(claims, serviceName, SECRET_KEY, 1000 * 60 * 60); // 1 hour access token
+    }
+
     // Generate Refresh Token with email
     public String generateRefreshToken(String email) {
         return createToken(new HashMap<>(), email, REFRESH_SECRET_KEY, 1000 * 60 * 60 * 24 * 7); // 7 days refresh token
@@ -41,28 +94,39 @@ public class JwtUtil {
                 .compact();
     }
 
+    // Verify an access token once and return its claims. Repeat calls with the same token
+    // are answered from the cache without checking the signature again.
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        if (verified == null || verified.isExpired()) {
+            Claims claims = extractAllClaims(token, SECRET_KEY);
+            verified = new VerifiedToken((String) claims.get("sub"), (String) claims.get("userId"),
+                    (Integer) claims.get("role"), claims.getExpiration());
+            verifiedTokens.put(digest, verified);
+        }
+        return verified;
+    }
+
     // Validate access token
     public Boolean validateToken(String token, String email) {
-        final String extractedEmail = extractEmail(token);
-        return (extractedEmail.equals(email) && !isTokenExpired(token, SECRET_KEY));
+        final VerifiedToken verified = verify(token);
+        return (verified.getEmail().equals(email) && !verified.isExpired());
     }
 
     // Modify extractEmail to get it from claims
     public String extractEmail(String token) {
-        Claims claims = extractAllClaims(token, SECRET_KEY);
-        return (String) claims.get("sub");
+        return verify(token).getEmail();
     }
 
     // Extract userId from the token
     public String extractUserId(String token) {
-        Claims claims = extractAllClaims(token, SECRET_KEY);
-        return (String) claims.get("userId");
+        return verify(token).getUserId();
     }
 
     // Extract role from the token
     public Integer extractRole(String token) {
-        Claims claims = extractAllClaims(token, SECRET_KEY);
-        return (Integer) claims.get("role");
+        return verify(token).getRole();
     }
 
     // Extract claims from the token
@@ -86,9 +150,9 @@ public class JwtUtil {
 
     // Extract all claims using the provided secret
     private Claims extractAllClaims(String token, String secret) {
+        JwtParser parser = REFRESH_SECRET_KEY.equals(secret) ? refreshTokenParser : accessTokenParser;
         try {
-            return Jwts.parser()
-                    .setSigningKey(secret)
+            return parser
                     .parseClaimsJws(token)
                     .getBody();
         } catch (MalformedJwtException e) {
@@ -123,4 +187,14 @@ public class JwtUtil {
 
         return generateToken(email, userId, role); // Generate new access token
     }
+
+    // Cache key for a token: its SHA-256 digest, so tokens themselves are not kept in memory
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -2,17 +2,19 @@ package com.cloud_based.supply_chain.userservice.config;
 
 // import com.cloud_based.supply_chain.userservice.service.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.*;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.*;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class SecurityConfig {
 
@@ -24,13 +26,24 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authorize -> authorize
+                        .requestMatchers("/api/orders/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/users/*/role").hasRole("ADMIN")
+                        .requestMatchers("/api/analytics/**").hasAnyRole("ADMIN", "MANAGER")
+                        // Called by the order side's inventory gateway only, see ServiceCredentials
+                        .requestMatchers("/api/products/reservations/**", "/api/products/adjust-stock").hasRole("SERVICE")
                         .requestMatchers("/api/users/register", "/api/users/login", "/api/products",
-                                "/api/products/add-product", "/api/products/update-product/{id}",
-                                "/api/products/product-details/{id}", "/api/products/delete-product/{id}",
-                                "/api/products/category/{category}", "/api/orders", "/api/orders/my-orders",
-                                "/api/orders/create-order", "/api/orders/specific-orderId/{orderId}",
-                                "/api/orders/delete-order/{orderId}", "api/orders/update/{orderId}",
-                                "api/orders/update-status/{orderId}")
+                                "/api/products/add-product", "/api/products/import", "/api/products/update-product/{id}",
+                                "/api/products/product-details/{id}", "/api/products/batch",
+                                "/api/products/availability/{id}",
+                                "/api/products/delete-product/{id}",
+                                "/api/products/category/{category}", "/api/products/category/{category}/page",
+                                "/api/products/page", "/api/products/stream", "/api/products/search", "/api/products/low-stock",
+                                "/api/products/low-stock/stream", "/api/products/events", "/api/orders", "/api/orders/my-orders",
+                                "/api/orders/my-orders/page",
+                                "/api/orders/create-order", "/api/orders/bulk-create", "/api/orders/specific-orderId/{orderId}",
+                                "/api/orders/delete-order/{orderId}",
+                                "/api/reactive/products/**",
+                                "/api/reactive/orders/**")
                         .permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
@@ -41,10 +54,14 @@ public class SecurityConfig {
         return http.build();
     }
 
-    // Password Encoder Bean
+    // Password Encoder Bean: BCrypt on a bounded executor, see BoundedPasswordEncoder
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password-hashing.strength:10}") int strength,
+            @Value("${security.password-hashing.threads:4}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.timeout-ms:2000}") long timeoutMs,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(strength, threads, queueCapacity, timeoutMs, meterRegistry);
     }
 
     // Authentication Manager Bean
@@ -0,0 +1,39 @@
+package com.cloud_based.supply_chain.userservice.config;
+
+import java.util.Date;
+
+// Claims of an access token whose signature has already been checked; see JwtUtil.verify
+public final class VerifiedToken {
+
+    private final String email;
+    private final String userId;
+    private final Integer role;
+    private final Date expiration;
+
+    public VerifiedToken(String email, String userId, Integer role, Date expiration) {
+        this.email = email;
+        this.userId = userId;
+        this.role = role;
+        this.expiration = new Date(expiration.getTime());
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Integer getRole() {
+        return role;
+    }
+
+    public Date getExpiration() {
+        return new Date(expiration.getTime());
+    }
+
+    public boolean isExpired() {
+        return expiration.getTime() <= System.currentTimeMillis();
+    }
+}
@@ -1,11 +1,13 @@
 package com.cloud_based.supply_chain.userservice.controller;
 
 import com.cloud_based.supply_chain.userservice.config.JwtUtil;
+import com.cloud_based.supply_chain.userservice.exception.PasswordHashingBusyException;
 import com.cloud_based.supply_chain.userservice.model.AuthenticationRequest;
 import com.cloud_based.supply_chain.userservice.model.AuthenticationResponse;
 import com.cloud_based.supply_chain.userservice.model.User;
 import com.cloud_based.supply_chain.userservice.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.*;
 import org.springframework.web.bind.annotation.*;
@@ -34,6 +36,14 @@ public class AuthController {
             );
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(401).body("Incorrect email or password");
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+        } catch (InternalAuthenticationServiceException e) {
+            // Hashing done while looking up an unknown user is wrapped by the authentication provider
+            if (e.getCause() instanceof PasswordHashingBusyException) {
+                return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(e.getCause().getMessage());
+            }
+            throw e;
         }
 
         Optional<User> optionalUser = userRepository.findByEmail(authRequest.getEmail());
@@ -1,15 +1,22 @@
 package com.cloud_based.supply_chain.userservice.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.cloud_based.supply_chain.userservice.config.JwtUtil;
+import com.cloud_based.supply_chain.userservice.exception.PasswordHashingBusyException;
+import com.cloud_based.supply_chain.userservice.model.PasswordChangeRequest;
 import com.cloud_based.supply_chain.userservice.model.User;
 import com.cloud_based.supply_chain.userservice.service.UserService;
 
@@ -28,8 +35,12 @@ public class UserController {
     // Register new user
     @PostMapping("/register")
     public ResponseEntity<User> registerUser(@RequestBody User user) {
-        User registerdUser = userService.registerUser(user);
-        return ResponseEntity.ok(registerdUser);
+        try {
+            User registerdUser = userService.registerUser(user);
+            return ResponseEntity.ok(registerdUser);
+        } catch (PasswordHashingBusyException ex) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
     }
 
     @PostMapping("/login")
@@ -54,9 +65,38 @@ public class UserController {
             logger.info("Generated JWT Token: {}", token);
 
             return ResponseEntity.ok("Login successful for user: " + user.getUsername() + " token: " + token);
+        } catch (PasswordHashingBusyException ex) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(ex.getMessage());
+        } catch (RuntimeException ex) {
+            return ResponseEntity.status(401).body(ex.getMessage());
+        }
+    }
+
+    // Change the caller's own password
+    @PostMapping("/change-password")
+    public ResponseEntity<String> changePassword(@RequestBody PasswordChangeRequest request,
+            Authentication authentication) {
+        try {
+            userService.changePassword(authentication.getName(), request.getCurrentPassword(), request.getNewPassword());
+            return ResponseEntity.ok("Password changed");
+        } catch (PasswordHashingBusyException ex) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
         } catch (RuntimeException ex) {
             return ResponseEntity.status(401).body(ex.getMessage());
         }
     }
 
+    // Change a user's role; admins only
+    @PutMapping("/{email}/role")
+    public ResponseEntity<User> changeRole(@PathVariable String email, @RequestParam int role) {
+        try {
+            return ResponseEntity.ok(userService.changeRole(email, role));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException ex) {
+            return ResponseEntity.notFound().build();
+        }
+    }
 }
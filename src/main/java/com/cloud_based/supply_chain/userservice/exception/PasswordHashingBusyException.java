@@ -0,0 +1,7 @@
+package com.cloud_based.supply_chain.userservice.exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
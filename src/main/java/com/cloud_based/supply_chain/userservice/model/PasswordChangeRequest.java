@@ -0,0 +1,32 @@
+package com.cloud_based.supply_chain.userservice.model;
+
+public class PasswordChangeRequest {
+    private String currentPassword;
+    private String newPassword;
+
+    // Constructors
+    public PasswordChangeRequest() {
+    }
+
+    public PasswordChangeRequest(String currentPassword, String newPassword) {
+        this.currentPassword = currentPassword;
+        this.newPassword = newPassword;
+    }
+
+    // Getters and Setters
+    public String getCurrentPassword() {
+        return currentPassword;
+    }
+
+    public void setCurrentPassword(String currentPassword) {
+        this.currentPassword = currentPassword;
+    }
+
+    public String getNewPassword() {
+        return newPassword;
+    }
+
+    public void setNewPassword(String newPassword) {
+        this.newPassword = newPassword;
+    }
+}
@@ -1,22 +1,39 @@
 package com.cloud_based.supply_chain.userservice.service;
 
+import com.cloud_based.supply_chain.userservice.config.JwtUtil;
+import com.cloud_based.supply_chain.userservice.config.VerifiedToken;
 import com.cloud_based.supply_chain.userservice.model.User;
 import com.cloud_based.supply_chain.userservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    // User details by email for the "cached" principal source; bounded by size and age
+    private final Cache<String, UserDetails> userDetailsCache;
+
+    public CustomUserDetailsService(@Value("${security.user-cache.max-size:10000}") long maxSize,
+            @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userDetailsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
     // Update method to use email, consistent with your authentication flow
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -28,9 +45,43 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        // Convert role integer to authorities
+        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(),
+                authoritiesForRole(user.getRole()));
+    }
+
+    // Called by the authentication manager to store a rehashed password after a successful login
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        evictUser(user.getEmail());
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
+
+    // Same as loadUserByEmail, served from a TTL-bounded cache
+    public UserDetails loadUserByEmailCached(String email) throws UsernameNotFoundException {
+        return userDetailsCache.get(email, this::loadUserByEmail);
+    }
+
+    // Build the principal straight from verified token claims, without touching the database
+    public UserDetails loadUserFromToken(VerifiedToken token) {
+        int role = token.getRole() != null ? token.getRole() : 2;
+        return new org.springframework.security.core.userdetails.User(token.getEmail(), "", authoritiesForRole(role));
+    }
+
+    // Drop cached details after the user's role or password changed
+    public void evictUser(String email) {
+        userDetailsCache.invalidate(email);
+    }
+
+    // Convert role integer to authorities
+    public static List<GrantedAuthority> authoritiesForRole(int role) {
         List<GrantedAuthority> authorities = new ArrayList<>();
-        switch (user.getRole()) {
+        switch (role) {
             case 0:
                 authorities.add(new SimpleGrantedAuthority("ROLE_MANAGER"));
                 break;
@@ -40,11 +91,13 @@ public class CustomUserDetailsService implements UserDetailsService {
             case 2:
                 authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
                 break;
+            case JwtUtil.SERVICE_ROLE:
+                authorities.add(new SimpleGrantedAuthority("ROLE_SERVICE"));
+                break;
             default:
                 authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
                 break;
         }
-
-        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(), authorities);
+        return authorities;
     }
 }
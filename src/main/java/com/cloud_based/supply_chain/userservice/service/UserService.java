@@ -18,6 +18,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
     // User Registration
     public User registerUser(User user) {
         // Check if the email or phone number already exists
@@ -31,7 +34,9 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         user.setRole(2); // Default role for users
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userDetailsService.evictUser(savedUser.getEmail());
+        return savedUser;
     }
 
     // User Login
@@ -42,6 +47,12 @@ public class UserService {
         if (user.isPresent()) {
             // Check for password match
             if (passwordEncoder.matches(password, user.get().getPassword())) {
+                // Rehash transparently when the configured cost factor was raised
+                if (passwordEncoder.upgradeEncoding(user.get().getPassword())) {
+                    user.get().setPassword(passwordEncoder.encode(password));
+                    userRepository.save(user.get());
+                    userDetailsService.evictUser(email);
+                }
                 return user.get();
             } else {
                 throw new RuntimeException("Invalid Password");
@@ -50,4 +61,36 @@ public class UserService {
             throw new RuntimeException("User not Found.");
         }
     }
+
+    // Change a user's password after checking the current one
+    public void changePassword(String email, String currentPassword, String newPassword) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not Found."));
+        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+            throw new RuntimeException("Invalid Password");
+        }
+        if (newPassword == null || newPassword.isBlank()) {
+            throw new IllegalArgumentException("New password must not be empty");
+        }
+
+        user.setPassword(passwordEncoder.encode(newPassword));
+        userRepository.save(user);
+        userDetailsService.evictUser(email);
+    }
+
+    // Change a user's role (0: Manager, 1: Admin, 2: User). Tokens issued before keep the old
+    // role until they expire; the "cached" principal source sees the new one right away on this
+    // instance and within security.user-cache.ttl-seconds on the others.
+    public User changeRole(String email, int role) {
+        if (role < 0 || role > 2) {
+            throw new IllegalArgumentException("Invalid role: " + role);
+        }
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not Found."));
+
+        user.setRole(role);
+        User savedUser = userRepository.save(user);
+        userDetailsService.evictUser(email);
+        return savedUser;
+    }
 }
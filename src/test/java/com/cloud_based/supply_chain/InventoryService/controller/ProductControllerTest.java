@@ -0,0 +1,87 @@
+package com.cloud_based.supply_chain.InventoryService.controller;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.service.ProductCatalogVersion;
+import com.cloud_based.supply_chain.InventoryService.service.ProductService;
+
+class ProductControllerTest {
+
+    private ProductService productService;
+
+    private ProductCatalogVersion productCatalogVersion;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        productCatalogVersion = mock(ProductCatalogVersion.class);
+        ProductController controller = new ProductController();
+        ReflectionTestUtils.setField(controller, "productService", productService);
+        ReflectionTestUtils.setField(controller, "productCatalogVersion", productCatalogVersion);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void unchangedProductIsAnsweredWith304WithoutLoadingIt() throws Exception {
+        when(productService.getProductVersion("p1")).thenReturn(3L);
+
+        mockMvc.perform(get("/api/products/product-details/p1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        verify(productService, never()).getProductById(anyString(), anyBoolean());
+    }
+
+    @Test
+    void changedProductIsSentWithItsNewVersion() throws Exception {
+        Product product = new Product("Hammer", "tools", 9.5, 10, "");
+        product.setId("p1");
+        product.setVersion(4L);
+        when(productService.getProductVersion("p1")).thenReturn(4L);
+        when(productService.getProductById("p1", false)).thenReturn(product);
+
+        mockMvc.perform(get("/api/products/product-details/p1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void unchangedCatalogIsAnsweredWith304WithoutReadingTheList() throws Exception {
+        when(productCatalogVersion.current()).thenReturn("12-345");
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, "\"12-345\""))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void changedCatalogIsSentWithTheCurrentVersion() throws Exception {
+        when(productCatalogVersion.current()).thenReturn("13-345");
+        when(productService.getAllProducts()).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, "\"12-345\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"13-345\""));
+    }
+}
@@ -0,0 +1,130 @@
+package com.cloud_based.supply_chain.InventoryService.controller;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.cloud_based.supply_chain.InventoryService.Repository.ReactiveProductRepository;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.service.ProductService;
+import com.cloud_based.supply_chain.common.LatencyRecorder;
+
+import reactor.core.publisher.Mono;
+
+// Product reads under load through the servlet stack (ProductController, blocking service call)
+// and the reactive stack (ReactiveProductController, Mono from the repository). Both get the same
+// pool of request threads, sized like Tomcat's default, and the same number of clients in flight;
+// Mongo is replaced by a fixed delay, a sleep on the blocking side and a timer on the reactive
+// side. Once the clients outnumber the request threads, blocking requests queue for a thread
+// while reactive ones hand theirs back during the wait, which is the gap this measures. Real
+// Mongo latency varies and the reactive driver has its own pool, so read the numbers as the shape
+// of the difference rather than a prediction.
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ReactiveStackBenchmarkTest {
+
+    private static final int REQUEST_THREADS = 200; // server.tomcat.threads.max default
+
+    private static final int CLIENTS = 1_000; // Requests in flight at any time
+
+    private static final long MONGO_LATENCY_MS = 5;
+
+    private static final int WARMUP = 5_000;
+
+    private static final int REQUESTS = 50_000;
+
+    private final ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+
+    private final Product product = product();
+
+    @AfterEach
+    void tearDown() {
+        requestThreads.shutdownNow();
+    }
+
+    @Test
+    void compareThroughputAndTailLatency() throws InterruptedException {
+        ProductController blocking = blockingController();
+        ReactiveProductController reactive = reactiveController();
+
+        Request blockingRequest = done -> {
+            blocking.getProductById(product.getId(), false, new ServletWebRequest(new MockHttpServletRequest()));
+            done.accept(System.nanoTime());
+        };
+        Request reactiveRequest = done -> reactive.getProductById(product.getId())
+                .subscribe(response -> done.accept(System.nanoTime()));
+
+        System.out.println(run(blockingRequest).summary("product read (servlet)"));
+        System.out.println(run(reactiveRequest).summary("product read (reactive)"));
+    }
+
+    private LatencyRecorder run(Request request) throws InterruptedException {
+        load(request, WARMUP, new LatencyRecorder(WARMUP));
+        LatencyRecorder latencies = new LatencyRecorder(REQUESTS);
+        load(request, REQUESTS, latencies);
+        return latencies;
+    }
+
+    // Closed loop: a client sends its next request once the previous one was answered
+    private void load(Request request, int requests, LatencyRecorder latencies) throws InterruptedException {
+        Semaphore clients = new Semaphore(CLIENTS);
+        for (int i = 0; i < requests; i++) {
+            clients.acquire();
+            long start = System.nanoTime();
+            requestThreads.execute(() -> request.handle(end -> {
+                latencies.record(start, end);
+                clients.release();
+            }));
+        }
+        if (!clients.tryAcquire(CLIENTS, 1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Requests still running after a minute");
+        }
+    }
+
+    private ProductController blockingController() {
+        ProductService productService = mock(ProductService.class, withSettings().stubOnly());
+        when(productService.getProductById(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            Thread.sleep(MONGO_LATENCY_MS);
+            return product;
+        });
+        ProductController controller = new ProductController();
+        ReflectionTestUtils.setField(controller, "productService", productService);
+        return controller;
+    }
+
+    private ReactiveProductController reactiveController() {
+        ReactiveProductRepository repository = mock(ReactiveProductRepository.class, withSettings().stubOnly());
+        when(repository.findById(anyString()))
+                .thenAnswer(invocation -> Mono.just(product).delayElement(Duration.ofMillis(MONGO_LATENCY_MS)));
+        ReactiveProductController controller = new ReactiveProductController();
+        ReflectionTestUtils.setField(controller, "reactiveProductRepository", repository);
+        return controller;
+    }
+
+    private static Product product() {
+        Product product = new Product("Product", "Category", 10, 1_000_000, "Benchmark product");
+        product.setId(String.format("%024x", 1));
+        product.setVersion(1L);
+        return product;
+    }
+
+    // One request; calls done with its end time once the response is complete
+    private interface Request {
+        void handle(LongConsumer done);
+    }
+}
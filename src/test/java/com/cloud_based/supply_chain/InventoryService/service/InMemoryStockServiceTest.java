@@ -0,0 +1,176 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.InventoryService.Repository.ProductRepository;
+import com.cloud_based.supply_chain.InventoryService.model.InventoryEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.model.StockOutboxEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InMemoryStockServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path journalDir;
+
+    private ProductRepository productRepository;
+
+    private MongoTemplate mongoTemplate;
+
+    private BulkOperations bulk;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulk);
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> List.of(product("a", 10)));
+    }
+
+    @Test
+    void acknowledgedChangeIsReplayedAfterACrash() throws IOException {
+        InMemoryStockService crashed = start();
+        assertTrue(crashed.adjustQuantities("t1", StockChangeReason.REDUCE, "o1", Map.of("a", -3)).isEmpty());
+        verify(bulk, never()).execute(); // Never flushed
+
+        start();
+
+        Update update = writtenUpdate();
+        assertEquals(new Document("quantity", -3).append("reserved", 0).append("version", 1),
+                update.getUpdateObject().get("$inc", Document.class));
+    }
+
+    @Test
+    void replaySkipsChangesMongoAlreadyHas() throws IOException {
+        StockJournal journal = new StockJournal(journalDir, objectMapper);
+        StockOutboxEntry flushed = new StockOutboxEntry(-1, 0, StockChangeReason.REDUCE, null, "t1");
+        StockOutboxEntry moved = new StockOutboxEntry(-2, 0, StockChangeReason.REDUCE, null, "t2");
+        StockOutboxEntry lost = new StockOutboxEntry(-4, 0, StockChangeReason.REDUCE, null, "t3");
+        for (StockOutboxEntry entry : List.of(flushed, moved, lost)) {
+            journal.sync(journal.append(Map.of("a", entry)));
+        }
+        journal.close();
+
+        // "flushed" is still in the outbox, "moved" already went on to the event log
+        Product stored = product("a", 7);
+        StockOutboxEntry inOutbox = new StockOutboxEntry();
+        inOutbox.setEventId(flushed.getEventId());
+        stored.setOutbox(List.of(inOutbox));
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(stored));
+        InventoryEvent event = new InventoryEvent("a", moved);
+        when(mongoTemplate.find(any(Query.class), eq(InventoryEvent.class))).thenReturn(List.of(event));
+
+        start();
+
+        assertEquals(new Document("quantity", -4).append("reserved", 0).append("version", 1),
+                writtenUpdate().getUpdateObject().get("$inc", Document.class));
+    }
+
+    @Test
+    void evictFoldsQueuedChangesIntoTheStoredDocument() throws IOException {
+        InMemoryStockService stockService = start();
+        stockService.applyDeltas("o1:hold", StockChangeReason.HOLD, "o1", Map.of("a", -3), Map.of("a", 3));
+
+        stockService.evict("a");
+
+        assertEquals(new Document("quantity", -3).append("reserved", 3).append("version", 1),
+                writtenUpdate().getUpdateObject().get("$inc", Document.class));
+        // The next use seeds from the document that now has the change
+        stockService.getAvailability("a");
+        verify(productRepository, times(2)).findAllById(anyIterable());
+        stockService.flush();
+        verify(bulk, times(1)).execute();
+    }
+
+    @Test
+    void failedFlushIsNotWrittenTwiceWhenItReachedMongo() throws IOException {
+        InMemoryStockService stockService = start();
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("timeout"));
+        stockService.adjustQuantities("t1", StockChangeReason.REDUCE, null, Map.of("a", -3));
+        stockService.flush();
+
+        // The write did go through: its entry is in the outbox
+        @SuppressWarnings("unchecked")
+        Map<String, List<StockOutboxEntry>> unsettled =
+                (Map<String, List<StockOutboxEntry>>) ReflectionTestUtils.getField(stockService, "unsettled");
+        Product stored = product("a", 7);
+        stored.setOutbox(new ArrayList<>(unsettled.get("a")));
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(stored));
+
+        stockService.flush();
+
+        verify(bulk, times(1)).updateOne(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    void unitOfWorkIsAllOrNothing() throws IOException {
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> List.of(product("a", 10), product("b", 1)));
+        InMemoryStockService stockService = start();
+
+        assertEquals(List.of("b"), stockService.adjustQuantities("t1", StockChangeReason.REDUCE, null,
+                Map.of("a", -3, "b", -2)));
+
+        assertEquals(10, stockService.getAvailability("a").getAvailable());
+        stockService.flush();
+        verify(bulk, never()).execute();
+    }
+
+    private InMemoryStockService start() throws IOException {
+        InMemoryStockService stockService = new InMemoryStockService();
+        ReflectionTestUtils.setField(stockService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(stockService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(stockService, "productCache", mock(ProductCache.class));
+        ReflectionTestUtils.setField(stockService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stockService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(stockService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(stockService, "journalDir", journalDir.toString());
+        stockService.start();
+        return stockService;
+    }
+
+    private Update writtenUpdate() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateOne(any(Query.class), update.capture());
+        return update.getValue();
+    }
+
+    private static Product product(String id, int quantity) {
+        Product product = new Product("Product " + id, "Category", 5, quantity, "");
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,135 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.InventoryService.event.InventoryEventSubscriber;
+import com.cloud_based.supply_chain.InventoryService.model.InventoryEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.model.StockOutboxEntry;
+
+class InventoryEventLogTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private InventoryEventLog eventLog;
+
+    private final RecordingSubscriber local = new RecordingSubscriber("local", true);
+
+    private final RecordingSubscriber stored = new RecordingSubscriber("stored", false);
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        eventLog = new InventoryEventLog();
+        ReflectionTestUtils.setField(eventLog, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(eventLog, "subscribers", List.of(local, stored));
+        ReflectionTestUtils.setField(eventLog, "dispatchEnabled", true);
+        ReflectionTestUtils.setField(eventLog, "batchSize", 500);
+        ReflectionTestUtils.setField(eventLog, "leaseMillis", 30_000L);
+
+        InventoryEvent latest = event(7);
+        when(mongoTemplate.findOne(any(Query.class), eq(InventoryEvent.class))).thenReturn(latest);
+        when(mongoTemplate.find(any(Query.class), eq(InventoryEvent.class))).thenReturn(List.of(event(8)));
+    }
+
+    @Test
+    void instanceWithoutTheLeaseOnlyDeliversLocalSubscribers() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq("leases")))
+                .thenThrow(new DuplicateKeyException("held"));
+
+        eventLog.dispatch();
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Product.class));
+        assertEquals(List.of(8L), local.sequences);
+        assertEquals(List.of(), stored.sequences);
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq("inventory_event_offsets"));
+    }
+
+    @Test
+    void leaseHolderMovesOnlySettledEntriesAndStoresOffsets() {
+        StockOutboxEntry settled = new StockOutboxEntry(-1, 0, StockChangeReason.REDUCE, "order-1", "txn-1");
+        StockOutboxEntry inFlight = new StockOutboxEntry(-2, 0, StockChangeReason.REDUCE, "order-2", "txn-2");
+        Product product = new Product();
+        product.setId("a");
+        product.setPendingTxns(List.of("txn-2"));
+        product.setOutbox(List.of(settled, inFlight));
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(product));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), anyString())).thenReturn(new Document("value", 8L));
+        BulkOperations inserts = mock(BulkOperations.class);
+        BulkOperations cleanup = mock(BulkOperations.class);
+        List<InventoryEvent> inserted = new ArrayList<>();
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InventoryEvent.class)).thenReturn(inserts);
+        when(inserts.insert(any(List.class))).thenAnswer(invocation -> {
+            inserted.addAll(invocation.getArgument(0));
+            return inserts;
+        });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(cleanup);
+
+        eventLog.dispatch();
+
+        assertEquals(1, inserted.size());
+        assertEquals(settled.getEventId(), inserted.get(0).getId());
+        assertEquals(8, inserted.get(0).getSequence());
+        assertEquals(List.of(8L), stored.sequences);
+        verify(mongoTemplate).upsert(any(Query.class), eq(new Update().set("sequence", 8L)), eq("inventory_event_offsets"));
+    }
+
+    private static InventoryEvent event(long sequence) {
+        InventoryEvent event = new InventoryEvent();
+        event.setSequence(sequence);
+        event.setProductId("a");
+        return event;
+    }
+
+    private static final class RecordingSubscriber implements InventoryEventSubscriber {
+
+        private final String name;
+
+        private final boolean local;
+
+        private final List<Long> sequences = new ArrayList<>();
+
+        private RecordingSubscriber(String name, boolean local) {
+            this.name = name;
+            this.local = local;
+        }
+
+        @Override
+        public String getSubscriberName() {
+            return name;
+        }
+
+        @Override
+        public boolean isLocal() {
+            return local;
+        }
+
+        @Override
+        public void onEvents(List<InventoryEvent> events) {
+            events.forEach(event -> sequences.add(event.getSequence()));
+        }
+    }
+}
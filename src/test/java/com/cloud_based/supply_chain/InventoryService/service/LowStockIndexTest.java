@@ -0,0 +1,119 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.cloud_based.supply_chain.InventoryService.event.StockChangedEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LowStockIndexTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private LowStockIndex lowStockIndex;
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        lowStockIndex = new LowStockIndex();
+        ReflectionTestUtils.setField(lowStockIndex, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(lowStockIndex, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(lowStockIndex, "sseThreads", 1);
+        ReflectionTestUtils.setField(lowStockIndex, "sseQueueCapacity", 2);
+        lowStockIndex.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        lowStockIndex.stop();
+    }
+
+    @Test
+    void slowSubscriberNeitherBlocksRefreshNorMissesEvents() throws InterruptedException {
+        BlockingEmitter slow = new BlockingEmitter();
+        lowStockIndex.subscribe(slow);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            refreshWithQuantity(1);
+            refreshWithQuantity(50);
+        });
+        unblock.countDown();
+
+        assertTrue(slow.sent.await(5, TimeUnit.SECONDS));
+        assertEquals(0, slow.completions.get());
+    }
+
+    @Test
+    void subscriberThatFallsTooFarBehindIsDropped() {
+        BlockingEmitter slow = new BlockingEmitter();
+        lowStockIndex.subscribe(slow);
+
+        // At most one event is being written and two wait, so four crossings overflow the queue
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int quantity : new int[] { 1, 50, 1, 50 }) {
+                refreshWithQuantity(quantity);
+            }
+        });
+
+        assertEquals(1, slow.completions.get());
+    }
+
+    private void refreshWithQuantity(int quantity) {
+        Product product = new Product("Hammer", "Tools", 5, quantity, "");
+        product.setId("a");
+        product.setReorderThreshold(10);
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(product));
+        lowStockIndex.onStockChanged(new StockChangedEvent(Set.of("a")));
+        lowStockIndex.refresh();
+    }
+
+    // Emitter whose writes wait until the test lets them through, like a client that stopped reading
+    private final class BlockingEmitter extends SseEmitter {
+
+        private final CountDownLatch sent = new CountDownLatch(2);
+
+        private final AtomicInteger completions = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            sent.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completions.incrementAndGet();
+        }
+    }
+}
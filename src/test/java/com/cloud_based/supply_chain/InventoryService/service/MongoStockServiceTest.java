@@ -0,0 +1,166 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.InventoryService.event.StockChangedEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.model.StockOutboxEntry;
+import com.mongodb.bulk.BulkWriteResult;
+
+class MongoStockServiceTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private BulkOperations bulk;
+
+    private BulkOperations compensation;
+
+    private MongoStockService stockService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        bulk = mock(BulkOperations.class);
+        compensation = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulk, compensation);
+
+        stockService = new MongoStockService();
+        ReflectionTestUtils.setField(stockService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(stockService, "productCache", mock(ProductCache.class));
+        ReflectionTestUtils.setField(stockService, "eventPublisher", eventPublisher);
+    }
+
+    @Test
+    void decrementIsGuardedByTheAvailableQuantity() {
+        when(bulk.execute()).thenReturn(matched(1));
+
+        List<String> failed = stockService.adjustQuantities("txn-1", StockChangeReason.REDUCE, "order-1", Map.of("a", -3));
+
+        assertTrue(failed.isEmpty());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateOne(query.capture(), update.capture());
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("a", filter.get("_id"));
+        assertEquals(new Document("$ne", "txn-1"), filter.get("pendingTxns"));
+        assertEquals(new Document("$gte", 3), filter.get("quantity"));
+        assertEquals(new Document("quantity", -3).append("version", 1),
+                update.getValue().getUpdateObject().get("$inc", Document.class));
+    }
+
+    @Test
+    void fullyAppliedChangeClearsTheTagAndPublishes() {
+        when(bulk.execute()).thenReturn(matched(2));
+
+        List<String> failed = stockService.adjustQuantities("txn-1", StockChangeReason.RESTORE, null,
+                Map.of("a", 2, "b", 5));
+
+        assertTrue(failed.isEmpty());
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(Product.class));
+        verify(eventPublisher).publishEvent(any(StockChangedEvent.class));
+        verify(compensation, never()).execute();
+    }
+
+    @Test
+    void partialFailureCompensatesExactlyTheTaggedProducts() {
+        when(bulk.execute()).thenReturn(matched(1));
+        Product applied = new Product();
+        applied.setId("a");
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(applied));
+
+        List<String> failed = stockService.applyDeltas("txn-1", StockChangeReason.HOLD, "order-1",
+                Map.of("a", -2, "b", -4), Map.of("a", 2, "b", 4));
+
+        assertEquals(List.of("b"), failed);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(compensation, times(1)).updateOne(query.capture(), update.capture());
+        verify(compensation).execute();
+
+        // Only a document still carrying the tag is undone, by the inverse of what it took
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("a", filter.get("_id"));
+        assertEquals("txn-1", filter.get("pendingTxns"));
+        Document undo = update.getValue().getUpdateObject();
+        assertEquals(new Document("quantity", 2).append("reserved", -2).append("version", 1),
+                undo.get("$inc", Document.class));
+        assertEquals("txn-1", undo.get("$pull", Document.class).get("pendingTxns"));
+        assertTrue(undo.get("$pull", Document.class).containsKey("outbox"));
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void nothingToDoWithoutDeltas() {
+        assertTrue(stockService.applyDeltas("txn-1", StockChangeReason.HOLD, null, Map.of(), Map.of()).isEmpty());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Product.class));
+    }
+
+    @Test
+    void staleTagIsCompensatedAndAFreshOneLeftAlone() {
+        ReflectionTestUtils.setField(stockService, "staleAfterMillis", 60_000L);
+        StockOutboxEntry stale = new StockOutboxEntry(-3, 3, StockChangeReason.HOLD, "order-1", "txn-old");
+        stale.setOccurredAt(Instant.now().minusSeconds(600));
+        StockOutboxEntry fresh = new StockOutboxEntry(-1, 0, StockChangeReason.REDUCE, "order-2", "txn-new");
+        StockOutboxEntry settled = new StockOutboxEntry(-5, 0, StockChangeReason.REDUCE, "order-3", "txn-done");
+        settled.setOccurredAt(Instant.now().minusSeconds(600));
+        Product product = new Product();
+        product.setId("a");
+        product.setPendingTxns(List.of("txn-old", "txn-new"));
+        product.setOutbox(List.of(settled, stale, fresh));
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(product));
+        when(bulk.execute()).thenReturn(matched(1));
+
+        stockService.sweepStaleTxns();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(1)).updateOne(query.capture(), update.capture());
+        assertEquals(new Document("_id", "a").append("pendingTxns", "txn-old"), query.getValue().getQueryObject());
+        Document undo = update.getValue().getUpdateObject();
+        assertEquals(new Document("quantity", 3).append("reserved", -3).append("version", 1),
+                undo.get("$inc", Document.class));
+        assertEquals("txn-old", undo.get("$pull", Document.class).get("pendingTxns"));
+        verify(eventPublisher).publishEvent(any(StockChangedEvent.class));
+    }
+
+    @Test
+    void sweepWithoutStaleTagsWritesNothing() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of());
+
+        stockService.sweepStaleTxns();
+
+        verify(bulk, never()).execute();
+    }
+
+    private static BulkWriteResult matched(int count) {
+        return BulkWriteResult.acknowledged(0, count, 0, count, List.of(), List.of());
+    }
+}
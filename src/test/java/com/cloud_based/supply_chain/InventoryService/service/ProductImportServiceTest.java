@@ -0,0 +1,114 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.InventoryService.dto.ProductImportResult;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+
+class ProductImportServiceTest {
+
+    private final List<Query> upserted = new ArrayList<>();
+
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(bulk.upsert(any(Query.class), any(UpdateDefinition.class))).thenAnswer(invocation -> {
+            upserted.add(invocation.getArgument(0));
+            return bulk;
+        });
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getUpserts()).thenReturn(List.of());
+        when(bulk.execute()).thenReturn(result);
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Product.class))).thenReturn(bulk);
+
+        productImportService = new ProductImportService();
+        ReflectionTestUtils.setField(productImportService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(productImportService, "stockService", mock(StockService.class));
+        ReflectionTestUtils.setField(productImportService, "productCache", mock(ProductCache.class));
+        ReflectionTestUtils.setField(productImportService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(productImportService, "productSearchIndex", mock(ProductSearchIndex.class));
+        ReflectionTestUtils.setField(productImportService, "productCatalogVersion", mock(ProductCatalogVersion.class));
+        ReflectionTestUtils.setField(productImportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(productImportService, "batchSize", 1000);
+        ReflectionTestUtils.setField(productImportService, "maxReportedErrors", 1000);
+    }
+
+    @Test
+    void csvReaderSplitsQuotedFields() throws IOException {
+        ProductImportService.CsvReader csv = csv("name,description\r\n"
+                + "\"Drill, cordless\",\"18 V \"\"pro\"\"\nsecond line\"\r\n"
+                + "plain,\n"
+                + "last,no newline");
+
+        assertEquals(List.of("name", "description"), csv.next());
+        assertEquals(List.of("Drill, cordless", "18 V \"pro\"\nsecond line"), csv.next());
+        assertEquals(List.of("plain", ""), csv.next());
+        assertEquals(List.of("last", "no newline"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void csvReaderRejectsUnterminatedQuoteAndOverlongRecord() {
+        assertThrows(IllegalArgumentException.class, () -> csv("a,\"never closed\nb,c\n").next());
+        assertThrows(IllegalArgumentException.class, () -> csv("x".repeat((1 << 20) + 1)).next());
+    }
+
+    @Test
+    void rowsWithAnIdThatIsNotAnObjectIdFail() throws IOException {
+        String id = new ObjectId().toHexString();
+        ProductImportResult result = productImportService.importCsv(new StringReader("id,productName,price,quantity\n"
+                + id + ",Hammer,9.5,10\n"
+                + "hammer-1,Hammer,9.5,10\n"));
+
+        assertEquals(2, result.getRowsRead());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals(1, upserted.size());
+        assertEquals(id, upserted.get(0).getQueryObject().get("_id"));
+    }
+
+    @Test
+    void overlongNdjsonLineFailsAndTheNextLineIsImported() throws IOException {
+        ProductImportResult result = productImportService.importNdjson(new StringReader(
+                "{\"productName\":\"" + "x".repeat(1 << 20) + "\",\"price\":1,\"quantity\":1}\n"
+                        + "{\"productName\":\"Saw\",\"price\":12,\"quantity\":3}\r\n"));
+
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getRow());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Record longer than"));
+        assertEquals(1, result.getRowsRead());
+        assertEquals(1, upserted.size());
+    }
+
+    private static ProductImportService.CsvReader csv(String input) {
+        return new ProductImportService.CsvReader(new BufferedReader(new StringReader(input)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+
+// Ranking only: products are indexed one by one, the Mongo build is not involved
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex = new ProductSearchIndex();
+    }
+
+    @Test
+    void nameMatchRanksAboveDescriptionMatch() {
+        index("p1", "Toolbox", "tools", "Holds a drill and bits");
+        index("p2", "Cordless drill", "tools", "18 V");
+
+        assertEquals(List.of("p2", "p1"), productSearchIndex.search("drill", 10));
+    }
+
+    @Test
+    void exactTermRanksAbovePrefixMatch() {
+        index("p1", "Laptop stand", "office", "");
+        index("p2", "Lap desk", "office", "");
+
+        assertEquals(List.of("p2", "p1"), productSearchIndex.search("lap", 10));
+    }
+
+    @Test
+    void everyTokenMustMatch() {
+        index("p1", "Cordless drill", "tools", "");
+        index("p2", "Corded drill", "tools", "");
+        index("p3", "Cordless screwdriver", "tools", "");
+
+        assertEquals(List.of("p1"), productSearchIndex.search("cordless drill", 10));
+        assertEquals(List.of(), productSearchIndex.search("cordless hammer", 10));
+    }
+
+    @Test
+    void equalScoresAreOrderedById() {
+        index("p3", "Hammer", "tools", "");
+        index("p1", "Hammer", "tools", "");
+        index("p2", "Hammer", "tools", "");
+
+        assertEquals(List.of("p1", "p2", "p3"), productSearchIndex.search("hammer", 10));
+        assertEquals(List.of("p1", "p2"), productSearchIndex.search("hammer", 2));
+    }
+
+    @Test
+    void matchingIgnoresCaseAndAccents() {
+        index("p1", "Café table", "furniture", "");
+
+        assertEquals(List.of("p1"), productSearchIndex.search("CAFE", 10));
+    }
+
+    @Test
+    void reindexedAndRemovedProductsStopMatching() {
+        index("p1", "Hammer", "tools", "");
+        index("p2", "Hammer", "tools", "");
+
+        index("p1", "Mallet", "tools", "");
+        productSearchIndex.remove("p2");
+
+        assertEquals(List.of(), productSearchIndex.search("hammer", 10));
+        assertEquals(List.of("p1"), productSearchIndex.search("mallet", 10));
+    }
+
+    private void index(String id, String name, String category, String description) {
+        Product product = new Product(name, category, 1, 1, description);
+        product.setId(id);
+        productSearchIndex.index(product);
+    }
+}
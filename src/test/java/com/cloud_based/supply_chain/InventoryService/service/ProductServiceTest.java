@@ -0,0 +1,114 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.Repository.ProductRepository;
+import com.cloud_based.supply_chain.common.dto.CursorPage;
+
+class ProductServiceTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        productService = new ProductService();
+        ReflectionTestUtils.setField(productService, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void fullPageCarriesTheLastIdAsCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(products("p1", "p2", "p3"));
+
+        CursorPage<Product> page = productService.getProductsPage(null, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("p2", page.getNextCursor());
+        // One extra product is read to know whether another page follows
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Product.class));
+        assertEquals(3, query.getValue().getLimit());
+        assertEquals(new Document("_id", 1), query.getValue().getSortObject());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(products("p3"));
+
+        assertNull(productService.getProductsPage(null, "p2", 2).getNextCursor());
+    }
+
+    @Test
+    void cursorSeeksPastTheLastIdWithinTheCategory() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of());
+
+        productService.getProductsPage("tools", "p2", 2);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Product.class));
+        assertEquals(new Document("category", "tools").append("_id", new Document("$gt", "p2")),
+                query.getValue().getQueryObject());
+    }
+
+    @Test
+    void editOfAProductWithoutAVersionVersionsItInsteadOfInsertingIt() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        ReflectionTestUtils.setField(productService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(productService, "stockService", mock(StockService.class));
+        ReflectionTestUtils.setField(productService, "productCache", mock(ProductCache.class));
+        ReflectionTestUtils.setField(productService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(productService, "productSearchIndex", mock(ProductSearchIndex.class));
+        ReflectionTestUtils.setField(productService, "productCatalogVersion", mock(ProductCatalogVersion.class));
+        Product legacy = products("p1").get(0);
+        when(productRepository.findById("p1")).thenReturn(Optional.of(legacy));
+        List<Long> savedVersions = new ArrayList<>();
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
+            savedVersions.add(invocation.<Product>getArgument(0).getVersion());
+            return invocation.getArgument(0);
+        });
+
+        productService.updateProduct("p1", new Product("Renamed", "tools", 2, 1, ""));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Product.class));
+        assertEquals(new Document("_id", "p1").append("version", new Document("$exists", false)),
+                query.getValue().getQueryObject());
+        assertEquals(new Document("version", 0L), update.getValue().getUpdateObject().get("$set"));
+        // Saved as an update of version 0, not as a new product
+        assertEquals(List.of(0L), savedVersions);
+    }
+
+    private static List<Product> products(String... ids) {
+        List<Product> products = new ArrayList<>();
+        for (String id : ids) {
+            Product product = new Product("Product " + id, "tools", 1, 1, "");
+            product.setId(id);
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,230 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.InventoryService.model.InventoryEvent;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.common.LatencyRecorder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Startup to full read throughput, with and without a snapshot file. A cold instance serves reads
+// from Mongo until its first catch-up has rebuilt the snapshot; a warm one maps the file and catches
+// up with the events since it was written before it serves anything. Mongo is a stub that charges
+// MONGO_ROUND_TRIP_MICROS per query and per cursor batch, so the numbers show the shape, not what a
+// real cluster costs. Reads run on READERS threads from the moment the instance starts.
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ProductSnapshotBenchmarkTest {
+
+    private static final int PRODUCTS = 100_000;
+
+    private static final int EVENTS_SINCE_SNAPSHOT = 2_000;
+
+    private static final int CURSOR_BATCH = 1_000;
+
+    private static final int READERS = 8;
+
+    private static final int READS_PER_READER = 20_000;
+
+    private static final long MONGO_ROUND_TRIP_MICROS = 500;
+
+    private final Map<String, Product> products = new HashMap<>();
+
+    private final List<InventoryEvent> events = new ArrayList<>();
+
+    private MongoTemplate mongoTemplate;
+
+    private InventoryEventLog inventoryEventLog;
+
+    private Path directory;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product("Product " + i, "Category " + i % 50, 10 + i % 90, 1_000, "Benchmark product");
+            product.setId(String.format("%024x", i + 1));
+            product.setVersion(1L);
+            products.put(product.getId(), product);
+        }
+        for (int i = 0; i < EVENTS_SINCE_SNAPSHOT; i++) {
+            InventoryEvent event = new InventoryEvent();
+            event.setSequence(i + 1);
+            event.setProductId(String.format("%024x", i * 37 % PRODUCTS + 1));
+            events.add(event);
+        }
+        directory = Files.createTempDirectory("product-snapshot-benchmark");
+
+        mongoTemplate = mock(MongoTemplate.class, withSettings().stubOnly());
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenAnswer(invocation -> {
+            List<Product> all = new ArrayList<>(products.values());
+            return all.stream().peek(product -> {
+                if (Integer.parseInt(product.getId(), 16) % CURSOR_BATCH == 0) {
+                    roundTrip();
+                }
+            });
+        });
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenAnswer(invocation -> {
+            roundTrip();
+            Query query = invocation.getArgument(0);
+            Collection<String> ids = (Collection<String>) ((Map<String, Object>) query.getQueryObject().get("_id")).get("$in");
+            return ids.stream().map(products::get).collect(Collectors.toList());
+        });
+
+        inventoryEventLog = mock(InventoryEventLog.class, withSettings().stubOnly());
+        when(inventoryEventLog.getLatestSequence()).thenReturn((long) EVENTS_SINCE_SNAPSHOT);
+        when(inventoryEventLog.getEvents(anyLong(), anyInt())).thenAnswer(invocation -> {
+            roundTrip();
+            int after = (int) (long) invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return new ArrayList<>(events.subList(Math.min(after, events.size()),
+                    Math.min(after + limit, events.size())));
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void startupToFullThroughput() throws Exception {
+        // A snapshot written at sequence 0 by an earlier run, so the warm start has every event to catch up on
+        ProductSnapshot earlier = snapshot();
+        when(inventoryEventLog.getLatestSequence()).thenReturn(0L);
+        earlier.resync();
+        earlier.write();
+        Files.move(snapshotFile(), directory.resolve("seed.bin"));
+        when(inventoryEventLog.getLatestSequence()).thenReturn((long) EVENTS_SINCE_SNAPSHOT);
+
+        for (int round = 0; round < 2; round++) {
+            boolean report = round == 1;
+            run("cold start (no snapshot)", false, report);
+            run("warm start (snapshot)", true, report);
+        }
+    }
+
+    // Start an instance, read from READERS threads while it warms up, and report how long it took
+    // until the last read that had to go to Mongo
+    private void run(String label, boolean warm, boolean report) throws Exception {
+        Files.deleteIfExists(snapshotFile());
+        if (warm) {
+            Files.copy(directory.resolve("seed.bin"), snapshotFile());
+        }
+
+        long start = System.nanoTime();
+        ProductSnapshot snapshot = snapshot();
+        ReflectionTestUtils.invokeMethod(snapshot, "load");
+        long ready = System.nanoTime();
+
+        // The scheduled catch-up, which rebuilds a cold instance from Mongo
+        ExecutorService scheduler = Executors.newSingleThreadExecutor();
+        Future<?> catchUp = scheduler.submit(snapshot::catchUp);
+
+        LatencyRecorder recorder = new LatencyRecorder(READERS * READS_PER_READER);
+        long[] lastMongoRead = new long[READERS];
+        int[] mongoReads = new int[READERS];
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            int reader = r;
+            futures.add(readers.submit(() -> {
+                for (int i = 0; i < READS_PER_READER; i++) {
+                    String productId = String.format("%024x", (i * 7919 + reader * 104_729) % PRODUCTS + 1);
+                    long before = System.nanoTime();
+                    boolean fromMongo = read(snapshot, productId);
+                    long after = System.nanoTime();
+                    if (fromMongo) {
+                        lastMongoRead[reader] = after;
+                        mongoReads[reader]++;
+                    }
+                    recorder.record(before, after);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        catchUp.get();
+        readers.shutdown();
+        scheduler.shutdown();
+
+        long fullThroughput = ready;
+        int fallbacks = 0;
+        for (int r = 0; r < READERS; r++) {
+            fullThroughput = Math.max(fullThroughput, lastMongoRead[r]);
+            fallbacks += mongoReads[r];
+        }
+        if (report) {
+            System.out.println(recorder.summary(label) + String.format(" ready=%dms full-throughput=%dms mongo-reads=%d",
+                    TimeUnit.NANOSECONDS.toMillis(ready - start), TimeUnit.NANOSECONDS.toMillis(fullThroughput - start),
+                    fallbacks));
+        }
+    }
+
+    // What the ProductCache loader does on a miss; true when the read went to Mongo
+    private boolean read(ProductSnapshot snapshot, String productId) {
+        if (snapshot.get(productId) != null) {
+            return false;
+        }
+        roundTrip();
+        if (products.get(productId) == null) {
+            throw new IllegalStateException("Missing product " + productId);
+        }
+        return true;
+    }
+
+    private ProductSnapshot snapshot() {
+        ProductSnapshot snapshot = new ProductSnapshot();
+        ReflectionTestUtils.setField(snapshot, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(snapshot, "inventoryEventLog", inventoryEventLog);
+        ReflectionTestUtils.setField(snapshot, "productCache", mock(ProductCache.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(snapshot, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(snapshot, "snapshotPath", snapshotFile().toString());
+        ReflectionTestUtils.setField(snapshot, "maxAgeMinutes", 1440L);
+        ReflectionTestUtils.setField(snapshot, "batchSize", 500);
+        return snapshot;
+    }
+
+    private Path snapshotFile() {
+        return directory.resolve("product-snapshot.bin");
+    }
+
+    private static void roundTrip() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(MONGO_ROUND_TRIP_MICROS));
+    }
+}
@@ -0,0 +1,127 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.model.StockReservation;
+
+class ReservationServiceTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private StockService stockService;
+
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        stockService = mock(StockService.class);
+        when(stockService.applyDeltas(anyString(), any(), any(), anyMap(), anyMap())).thenReturn(List.of());
+
+        reservationService = new ReservationService();
+        ReflectionTestUtils.setField(reservationService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(reservationService, "stockService", stockService);
+        ReflectionTestUtils.setField(reservationService, "ttlMinutes", 30L);
+    }
+
+    @Test
+    void holdMovesUnitsToReservedThenWritesTheLedger() {
+        assertTrue(reservationService.hold("o1", Map.of("a", 2)).isEmpty());
+
+        verify(stockService).applyDeltas("o1:hold", StockChangeReason.HOLD, "o1", Map.of("a", -2), Map.of("a", 2));
+        ArgumentCaptor<StockReservation> saved = ArgumentCaptor.forClass(StockReservation.class);
+        verify(mongoTemplate).save(saved.capture());
+        assertEquals("o1", saved.getValue().getId());
+        assertEquals(StockReservation.Status.HELD, saved.getValue().getStatus());
+        assertEquals(Map.of("a", 2), saved.getValue().getLines());
+    }
+
+    @Test
+    void shortStockWritesNoLedgerEntry() {
+        when(stockService.applyDeltas(eq("o1:hold"), any(), any(), anyMap(), anyMap())).thenReturn(List.of("a"));
+
+        assertEquals(List.of("a"), reservationService.hold("o1", Map.of("a", 2)));
+        verify(mongoTemplate, never()).save(any());
+    }
+
+    @Test
+    void failedLedgerWriteGivesTheUnitsBack() {
+        when(mongoTemplate.save(any(StockReservation.class)))
+                .thenThrow(new DataAccessResourceFailureException("write failed"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> reservationService.hold("o1", Map.of("a", 2)));
+
+        verify(mongoTemplate).remove(any(Query.class), eq(StockReservation.class));
+        verify(stockService).applyDeltas("o1:hold:undo", StockChangeReason.RELEASE, "o1", Map.of("a", 2),
+                Map.of("a", -2));
+    }
+
+    @Test
+    void failedBatchLedgerWriteLeavesEntriesClosedMeanwhileAlone() {
+        when(mongoTemplate.insert(anyCollection(), eq(StockReservation.class)))
+                .thenThrow(new DataAccessResourceFailureException("write failed"));
+        // o2's entry was stored and confirmed by someone else before the undo ran
+        when(mongoTemplate.find(any(Query.class), eq(StockReservation.class)))
+                .thenReturn(List.of(new StockReservation("o2", Map.of("a", 1), Instant.now())));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> reservationService.holdAll("batch",
+                Map.of("o1", Map.of("a", 2, "b", 1), "o2", Map.of("a", 1))));
+
+        verify(stockService).applyDeltas("batch:hold", StockChangeReason.HOLD, null, Map.of("a", -3, "b", -1),
+                Map.of("a", 3, "b", 1));
+        verify(stockService).applyDeltas("batch:hold:undo", StockChangeReason.RELEASE, null, Map.of("a", 2, "b", 1),
+                Map.of("a", -2, "b", -1));
+    }
+
+    @Test
+    void confirmTurnsTheHoldIntoADecrement() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(StockReservation.class))).thenReturn(new StockReservation("o1", Map.of("a", 2), Instant.now()));
+
+        assertTrue(reservationService.confirm("o1"));
+        verify(stockService).applyDeltas("o1:confirm", StockChangeReason.CONFIRM, "o1", Map.of(), Map.of("a", -2));
+    }
+
+    @Test
+    void confirmWithoutALiveHoldLeavesStockAlone() {
+        assertFalse(reservationService.confirm("o1"));
+        verify(stockService, never()).applyDeltas(anyString(), any(), any(), anyMap(), anyMap());
+    }
+
+    @Test
+    void releaseGivesTheHeldUnitsBack() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(StockReservation.class))).thenReturn(new StockReservation("o1", Map.of("a", 2), Instant.now()));
+
+        assertTrue(reservationService.release("o1"));
+        verify(stockService).applyDeltas("o1:release", StockChangeReason.RELEASE, "o1", Map.of("a", 2),
+                Map.of("a", -2));
+    }
+}
@@ -0,0 +1,86 @@
+package com.cloud_based.supply_chain.InventoryService.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.cloud_based.supply_chain.InventoryService.model.StockChangeReason;
+import com.cloud_based.supply_chain.InventoryService.model.StockOutboxEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class StockJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsSurviveARestart() throws IOException {
+        StockJournal journal = new StockJournal(directory, objectMapper);
+        StockOutboxEntry entry = new StockOutboxEntry(-2, 2, StockChangeReason.HOLD, "o1", "o1:hold");
+        journal.sync(journal.append(Map.of("a", entry)));
+        journal.close(); // No flush: as if the process died
+
+        List<Map<String, StockOutboxEntry>> records = new StockJournal(directory, objectMapper).readClosedSegments();
+
+        assertEquals(1, records.size());
+        StockOutboxEntry read = records.get(0).get("a");
+        assertEquals(entry.getEventId(), read.getEventId());
+        assertEquals(-2, read.getQuantityDelta());
+        assertEquals(2, read.getReservedDelta());
+        assertEquals(StockChangeReason.HOLD, read.getReason());
+        assertEquals(entry.getOccurredAt(), read.getOccurredAt());
+    }
+
+    @Test
+    void tornLastRecordIsSkipped() throws IOException {
+        StockJournal journal = new StockJournal(directory, objectMapper);
+        journal.sync(journal.append(Map.of("a", new StockOutboxEntry(1, 0, StockChangeReason.ADJUST, null, "t1"))));
+        journal.close();
+        try (Stream<Path> segments = Files.list(directory)) {
+            Files.writeString(segments.findFirst().orElseThrow(), "{\"a\":{\"eventId\":\"6", StandardCharsets.UTF_8,
+                    StandardOpenOption.APPEND);
+        }
+
+        assertEquals(1, new StockJournal(directory, objectMapper).readClosedSegments().size());
+    }
+
+    @Test
+    void rotatedSegmentsAreDeletedOnceFlushed() throws IOException {
+        StockJournal journal = new StockJournal(directory, objectMapper);
+        journal.append(Map.of("a", new StockOutboxEntry(1, 0, StockChangeReason.ADJUST, null, "t1")));
+        journal.rotate();
+        journal.append(Map.of("b", new StockOutboxEntry(1, 0, StockChangeReason.ADJUST, null, "t2")));
+        journal.deleteClosedSegments();
+        journal.close();
+
+        // Only the record written after the rotation is left
+        List<Map<String, StockOutboxEntry>> records = new StockJournal(directory, objectMapper).readClosedSegments();
+        assertEquals(1, records.size());
+        assertTrue(records.get(0).containsKey("b"));
+    }
+
+    @Test
+    void rotatingAnEmptySegmentIsANoOp() throws IOException {
+        StockJournal journal = new StockJournal(directory, objectMapper);
+        journal.rotate();
+        journal.rotate();
+        journal.close();
+
+        try (Stream<Path> segments = Files.list(directory)) {
+            assertEquals(1, segments.count());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.cloud_based.supply_chain.analyticsservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.analyticsservice.dto.RollupRebuildResult;
+import com.cloud_based.supply_chain.analyticsservice.model.CategoryDailySales;
+import com.cloud_based.supply_chain.analyticsservice.model.ProductDailySales;
+import com.cloud_based.supply_chain.orderservice.client.InventoryGateway;
+import com.cloud_based.supply_chain.orderservice.model.Order;
+
+class SalesRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    private MongoTemplate mongoTemplate;
+
+    private BulkOperations productBulk;
+
+    private BulkOperations categoryBulk;
+
+    private SalesRollupService salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        productBulk = mock(BulkOperations.class);
+        categoryBulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductDailySales.class)).thenReturn(productBulk);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CategoryDailySales.class)).thenReturn(categoryBulk);
+
+        Product product = new Product("Hammer", "Tools", 5, 10, "");
+        product.setId("a");
+        InventoryGateway inventoryGateway = mock(InventoryGateway.class);
+        when(inventoryGateway.getProducts(anyCollection())).thenReturn(List.of(product));
+
+        salesRollupService = new SalesRollupService();
+        ReflectionTestUtils.setField(salesRollupService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(salesRollupService, "inventoryGateway", inventoryGateway);
+        ReflectionTestUtils.setField(salesRollupService, "rebuildThreads", 1);
+    }
+
+    @Test
+    void rebuildReplacesTheDayBeforeRemovingStaleRollups() {
+        aggregateTo(new Document("_id", "a").append("units", 3L).append("revenue", 10.0).append("unpricedUnits", 1L));
+
+        RollupRebuildResult result = salesRollupService.rebuild(DAY, DAY);
+
+        assertEquals(1, result.getProductRollups());
+        assertEquals(1, result.getCategoryRollups());
+        assertEquals(1, result.getUnpricedUnits());
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<ProductDailySales> rollup = ArgumentCaptor.forClass(ProductDailySales.class);
+        ArgumentCaptor<FindAndReplaceOptions> options = ArgumentCaptor.forClass(FindAndReplaceOptions.class);
+        verify(productBulk).replaceOne(filter.capture(), rollup.capture(), options.capture());
+        assertEquals(new Document("_id", "a|2024-05-01"), filter.getValue().getQueryObject());
+        assertEquals(3, rollup.getValue().getUnits());
+        assertEquals("Tools", rollup.getValue().getCategory());
+        assertEquals(true, options.getValue().isUpsert());
+
+        InOrder order = inOrder(productBulk, mongoTemplate);
+        order.verify(productBulk).execute();
+        ArgumentCaptor<Query> stale = ArgumentCaptor.forClass(Query.class);
+        order.verify(mongoTemplate).remove(stale.capture(), eq(ProductDailySales.class));
+        assertEquals(new Document("day", "2024-05-01").append("_id", new Document("$nin", List.of("a|2024-05-01"))),
+                stale.getValue().getQueryObject());
+        verify(categoryBulk).execute();
+    }
+
+    @Test
+    void dayWithoutOrdersOnlyRemovesItsRollups() {
+        aggregateTo();
+
+        salesRollupService.rebuild(DAY, DAY);
+
+        verify(productBulk, never()).execute();
+        verify(mongoTemplate).remove(any(Query.class), eq(ProductDailySales.class));
+        verify(mongoTemplate).remove(any(Query.class), eq(CategoryDailySales.class));
+    }
+
+    private void aggregateTo(Document... rows) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Order.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(rows), new Document()));
+    }
+}
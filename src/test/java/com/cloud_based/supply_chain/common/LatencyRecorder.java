@@ -0,0 +1,62 @@
+package com.cloud_based.supply_chain.common;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Collects per-call latencies of a benchmark and summarises them as percentiles and throughput.
+// Benchmarks only run with -Dbenchmarks=true, e.g. mvn test -Dbenchmarks=true -Dtest='*BenchmarkTest'
+public class LatencyRecorder {
+
+    private final long[] samples;
+
+    private int count;
+
+    private long firstStart;
+
+    private long lastEnd;
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    // Time one call; calls are expected to run one after the other
+    public void time(Runnable call) {
+        long start = System.nanoTime();
+        call.run();
+        long end = System.nanoTime();
+        if (count == 0) {
+            firstStart = start;
+        }
+        lastEnd = end;
+        samples[count++] = end - start;
+    }
+
+    public void record(long nanos) {
+        samples[count++] = nanos;
+    }
+
+    // Record a call that ran between the two nanoTime readings; safe to call from several threads
+    public synchronized void record(long startNanos, long endNanos) {
+        if (count == 0) {
+            firstStart = startNanos;
+            lastEnd = endNanos;
+        }
+        firstStart = Math.min(firstStart, startNanos);
+        lastEnd = Math.max(lastEnd, endNanos);
+        samples[count++] = endNanos - startNanos;
+    }
+
+    public synchronized long percentileMicros(double percentile) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]);
+    }
+
+    public synchronized String summary(String label) {
+        double seconds = (lastEnd - firstStart) / 1e9;
+        return String.format("%-28s n=%d p50=%dus p99=%dus max=%dus%s", label, count, percentileMicros(50),
+                percentileMicros(99), percentileMicros(100),
+                seconds > 0 ? String.format(" throughput=%.0f/s", count / seconds) : "");
+    }
+}
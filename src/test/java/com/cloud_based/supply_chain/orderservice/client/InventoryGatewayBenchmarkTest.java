@@ -0,0 +1,164 @@
+package com.cloud_based.supply_chain.orderservice.client;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.cloud_based.supply_chain.InventoryService.dto.StockAdjustmentResult;
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.InventoryService.service.ProductService;
+import com.cloud_based.supply_chain.InventoryService.service.ReservationService;
+import com.cloud_based.supply_chain.analyticsservice.service.SalesRollupService;
+import com.cloud_based.supply_chain.common.LatencyRecorder;
+import com.cloud_based.supply_chain.orderservice.Repository.OrderRepository;
+import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.cloud_based.supply_chain.orderservice.service.OrderService;
+import com.cloud_based.supply_chain.userservice.config.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Order-creation latency through the in-process gateway and through the HTTP gateway. Mongo is
+// stubbed out in both modes, so the difference is what the loopback hop costs: serialization,
+// the HTTP round trips and a server thread per call. The inventory side of the remote mode is a
+// JDK HttpServer serving canned responses, which is cheaper than Tomcat plus the JWT filter, so
+// the measured gap is a lower bound.
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class InventoryGatewayBenchmarkTest {
+
+    private static final int WARMUP = 1_000;
+
+    private static final int ITERATIONS = 5_000;
+
+    private static final int PRODUCTS_PER_ORDER = 5;
+
+    static {
+        // Without it the JDK server's split header/body writes hit delayed ACKs, ~40 ms per call
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<Product> products = new ArrayList<>();
+
+    private final Map<String, Integer> quantities = new LinkedHashMap<>();
+
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < PRODUCTS_PER_ORDER; i++) {
+            Product product = new Product("Product " + i, "Category", 10 + i, 1_000_000, "Benchmark product");
+            product.setId(String.format("%024x", i + 1));
+            products.add(product);
+            quantities.put(product.getId(), 1);
+        }
+
+        byte[] productsJson = objectMapper.writeValueAsBytes(products);
+        byte[] heldJson = objectMapper.writeValueAsBytes(new StockAdjustmentResult(List.of()));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/products/batch", exchange -> respond(exchange, productsJson));
+        server.createContext("/api/products/reservations/", exchange -> respond(exchange, heldJson));
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void compareOrderCreationLatency() {
+        OrderService local = orderService(localGateway());
+        OrderService remote = orderService(remoteGateway());
+
+        System.out.println(run("local gateway", local).summary("createOrder (local)"));
+        System.out.println(run("remote gateway", remote).summary("createOrder (remote)"));
+    }
+
+    private LatencyRecorder run(String label, OrderService orderService) {
+        for (int i = 0; i < WARMUP; i++) {
+            orderService.createOrder("user", quantities, 50);
+        }
+        LatencyRecorder latencies = new LatencyRecorder(ITERATIONS);
+        for (int i = 0; i < ITERATIONS; i++) {
+            latencies.time(() -> orderService.createOrder("user", quantities, 50));
+        }
+        return latencies;
+    }
+
+    private OrderService orderService(InventoryGateway gateway) {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderService orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "inventoryGateway", gateway);
+        ReflectionTestUtils.setField(orderService, "salesRollupService", mock(SalesRollupService.class));
+        return orderService;
+    }
+
+    private InventoryGateway localGateway() {
+        ProductService productService = mock(ProductService.class);
+        when(productService.getProductsByIds(anyList(), eq(true))).thenReturn(products);
+        ReservationService reservationService = mock(ReservationService.class);
+        when(reservationService.hold(anyString(), anyMap())).thenReturn(List.of());
+
+        LocalInventoryGateway gateway = new LocalInventoryGateway();
+        ReflectionTestUtils.setField(gateway, "productService", productService);
+        ReflectionTestUtils.setField(gateway, "reservationService", reservationService);
+        return gateway;
+    }
+
+    private InventoryGateway remoteGateway() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setDefaultMaxPerRoute(50);
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(
+                HttpClients.custom().setConnectionManager(connectionManager).build()));
+
+        InventoryFanOut inventoryFanOut = mock(InventoryFanOut.class);
+        RemoteInventoryGateway gateway = new RemoteInventoryGateway();
+        ReflectionTestUtils.setField(gateway, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(gateway, "inventoryFanOut", inventoryFanOut);
+        ServiceCredentials serviceCredentials = new ServiceCredentials();
+        ReflectionTestUtils.setField(serviceCredentials, "jwtUtil", new JwtUtil(10_000));
+        ReflectionTestUtils.setField(serviceCredentials, "clientName", "order-service");
+        ReflectionTestUtils.setField(gateway, "serviceCredentials", serviceCredentials);
+        ReflectionTestUtils.setField(gateway, "inventoryServiceUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/api/products");
+        return gateway;
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
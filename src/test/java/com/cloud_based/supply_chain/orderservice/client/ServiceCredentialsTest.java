@@ -0,0 +1,55 @@
+package com.cloud_based.supply_chain.orderservice.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.userservice.config.JwtUtil;
+import com.cloud_based.supply_chain.userservice.config.VerifiedToken;
+import com.cloud_based.supply_chain.userservice.service.CustomUserDetailsService;
+
+class ServiceCredentialsTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil(10_000);
+
+    private ServiceCredentials serviceCredentials;
+
+    @BeforeEach
+    void setUp() {
+        serviceCredentials = new ServiceCredentials();
+        ReflectionTestUtils.setField(serviceCredentials, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(serviceCredentials, "clientName", "order-service");
+    }
+
+    @Test
+    void tokenCarriesTheServiceRoleOnly() {
+        String authorization = serviceCredentials.authorization();
+        assertTrue(authorization.startsWith("Bearer "));
+
+        VerifiedToken token = jwtUtil.verify(authorization.substring(7));
+        assertEquals("order-service", token.getEmail());
+        assertEquals(JwtUtil.SERVICE_ROLE, token.getRole());
+        List<String> authorities = new CustomUserDetailsService(10, 300).loadUserFromToken(token).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        assertEquals(List.of("ROLE_SERVICE"), authorities);
+    }
+
+    @Test
+    void tokenIsReusedUntilItIsCloseToExpiry() throws InterruptedException {
+        String first = serviceCredentials.authorization();
+        assertEquals(first, serviceCredentials.authorization());
+
+        // Tokens are stamped to the second, so wait for a new one to differ
+        ReflectionTestUtils.setField(serviceCredentials, "renewAt", 0L);
+        Thread.sleep(1_100);
+        assertNotEquals(first, serviceCredentials.authorization());
+    }
+}
@@ -0,0 +1,77 @@
+package com.cloud_based.supply_chain.orderservice.controller;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.cloud_based.supply_chain.orderservice.model.OrderLine;
+import com.cloud_based.supply_chain.orderservice.model.OrderStatus;
+import com.cloud_based.supply_chain.orderservice.service.OrderService;
+
+class OrderControllerTest {
+
+    private OrderService orderService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        OrderController controller = new OrderController();
+        ReflectionTestUtils.setField(controller, "orderService", orderService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void unchangedOrderIsAnsweredWith304WithoutLoadingIt() throws Exception {
+        when(orderService.getOrderVersion("o1")).thenReturn(2L);
+
+        mockMvc.perform(get("/api/orders/specific-orderId/o1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+        verify(orderService, never()).getOrderById(anyString());
+    }
+
+    @Test
+    void changedOrderIsSentWithItsNewVersion() throws Exception {
+        Order order = new Order("user", new ArrayList<>(List.of(new OrderLine("a", 1, 5))), OrderStatus.CONFIRMED,
+                5.0, Instant.now());
+        order.setId("o1");
+        order.setVersion(3L);
+        when(orderService.getOrderVersion("o1")).thenReturn(3L);
+        when(orderService.getOrderById("o1")).thenReturn(order);
+
+        mockMvc.perform(get("/api/orders/specific-orderId/o1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    void statusChangeThatLostARaceIsAConflict() throws Exception {
+        when(orderService.updateOrderStatus("o1", "CONFIRMED"))
+                .thenThrow(new OptimisticLockingFailureException("Order o1 was changed concurrently"));
+
+        mockMvc.perform(put("/api/orders/update-status/o1").param("status", "confirmed"))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,114 @@
+package com.cloud_based.supply_chain.orderservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+
+class LegacyOrderMigratorTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private BulkOperations bulk;
+
+    private LegacyOrderMigrator migrator;
+
+    private final List<List<Document>> unversionedOrders = new ArrayList<>(); // One find result per call
+
+    private final List<List<Document>> legacyLines = new ArrayList<>();
+
+    private int findCount;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        when(mongoTemplate.getCollectionName(Order.class)).thenReturn("orders");
+        // Each pass is told apart by the field its query looks for; an exhausted list finds nothing
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), any(String.class))).thenAnswer(invocation -> {
+            findCount++;
+            Document query = invocation.<Query>getArgument(0).getQueryObject();
+            if (query.containsKey("version")) {
+                return unversionedOrders.isEmpty() ? List.of() : unversionedOrders.remove(0);
+            }
+            if (query.containsKey("productIds")) {
+                return legacyLines.isEmpty() ? List.of() : legacyLines.remove(0);
+            }
+            return List.of();
+        });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(bulk);
+        when(bulk.updateOne(any(Query.class), any(Update.class))).thenReturn(bulk);
+
+        migrator = new LegacyOrderMigrator();
+        ReflectionTestUtils.setField(migrator, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(migrator, "batchSize", 500);
+    }
+
+    @Test
+    void passThatCouldNotUpdateAnythingIsRetried() {
+        Document legacyOrder = new Document("_id", "o1").append("productIds", List.of("a", "a"));
+        legacyLines.add(List.of(legacyOrder));
+        legacyLines.add(List.of(legacyOrder));
+        when(bulk.execute()).thenReturn(modified(0));
+
+        migrator.migrate();
+        migrator.migrate();
+
+        verify(bulk, times(2)).execute();
+    }
+
+    @Test
+    void migrationStopsOnceNothingIsFound() {
+        Document legacyOrder = new Document("_id", "o1").append("productIds", List.of("a", "a"));
+        legacyLines.add(List.of(legacyOrder));
+        when(bulk.execute()).thenReturn(modified(1));
+
+        migrator.migrate();
+        migrator.migrate();
+
+        // Versions: one empty check; lines: the batch, then the empty check; dates: one empty check.
+        // Nothing on the second run.
+        assertEquals(4, findCount);
+        verify(bulk, times(1)).execute();
+    }
+
+    @Test
+    void ordersWithoutAVersionStartAtZero() {
+        unversionedOrders.add(List.of(new Document("_id", "o1"), new Document("_id", "o2")));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Order.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+        migrator.migrate();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Order.class));
+        assertEquals(List.of("o1", "o2"),
+                ((Document) query.getValue().getQueryObject().get("_id")).get("$in"));
+        assertEquals(new Document("version", 0L), update.getValue().getUpdateObject().get("$set"));
+    }
+
+    private static BulkWriteResult modified(int count) {
+        return BulkWriteResult.acknowledged(0, count, 0, count, List.of(), List.of());
+    }
+}
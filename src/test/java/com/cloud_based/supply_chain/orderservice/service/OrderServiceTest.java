@@ -0,0 +1,477 @@
+package com.cloud_based.supply_chain.orderservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.InventoryService.model.Product;
+import com.cloud_based.supply_chain.analyticsservice.service.SalesRollupService;
+import com.cloud_based.supply_chain.common.dto.CursorPage;
+import com.cloud_based.supply_chain.orderservice.Repository.OrderRepository;
+import com.cloud_based.supply_chain.orderservice.client.InventoryGateway;
+import com.cloud_based.supply_chain.orderservice.dto.BulkOrderResult;
+import com.cloud_based.supply_chain.orderservice.dto.OrderLineRequest;
+import com.cloud_based.supply_chain.orderservice.dto.OrderRequest;
+import com.cloud_based.supply_chain.orderservice.dto.OrderUpdateRequest;
+import com.cloud_based.supply_chain.orderservice.exception.InsufficientInventoryException;
+import com.cloud_based.supply_chain.orderservice.model.Order;
+import com.cloud_based.supply_chain.orderservice.model.OrderLine;
+import com.cloud_based.supply_chain.orderservice.model.OrderStatus;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+class OrderServiceTest {
+
+    private OrderRepository orderRepository;
+
+    private MongoTemplate mongoTemplate;
+
+    private InventoryGateway inventoryGateway;
+
+    private SalesRollupService salesRollupService;
+
+    private OrderService orderService;
+
+    private final List<Product> products = new ArrayList<>();
+
+    private final List<Order> inserted = new ArrayList<>();
+
+    private final List<Update> claims = new ArrayList<>(); // Conditional single-order writes, in order
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        inventoryGateway = mock(InventoryGateway.class);
+        salesRollupService = mock(SalesRollupService.class);
+        when(inventoryGateway.getProducts(anyCollection())).thenReturn(products);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Order.class))).thenAnswer(invocation -> {
+                    claims.add(invocation.getArgument(1));
+                    Order stored = pendingOrder((String) invocation.<Query>getArgument(0).getQueryObject().get("_id"),
+                            "a", 2);
+                    stored.setVersion((long) claims.size());
+                    return stored;
+                });
+
+        orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(orderService, "inventoryGateway", inventoryGateway);
+        ReflectionTestUtils.setField(orderService, "salesRollupService", salesRollupService);
+
+        products.add(product("a", 10));
+        products.add(product("b", 10));
+    }
+
+    @Test
+    void failedUpdatePutsTheOldHoldBack() {
+        Order order = pendingOrder("o1", "a", 2);
+        when(orderRepository.findById("o1")).thenReturn(Optional.of(order));
+        when(inventoryGateway.releaseHold("o1")).thenReturn(true);
+        when(inventoryGateway.holdStock("o1", Map.of("b", 1))).thenReturn(List.of("b"));
+        when(inventoryGateway.holdStock("o1", Map.of("a", 2))).thenReturn(List.of());
+        products.set(1, product("b", 0));
+
+        assertThrows(InsufficientInventoryException.class, () -> orderService.updateOrder("o1", update("b")));
+
+        verify(inventoryGateway).holdStock("o1", Map.of("a", 2));
+        // The new lines were written first, then put back
+        assertEquals(2, claims.size());
+        assertEquals(order.getLines(), claims.get(1).getUpdateObject().get("$set", Document.class).get("lines"));
+    }
+
+    @Test
+    void failedReleaseOfTheOldHoldPutsTheOldLinesBack() {
+        Order order = pendingOrder("o1", "a", 2);
+        when(orderRepository.findById("o1")).thenReturn(Optional.of(order));
+        when(inventoryGateway.releaseHold("o1")).thenThrow(new DataAccessResourceFailureException("timed out"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> orderService.updateOrder("o1", update("b")));
+
+        assertEquals(2, claims.size());
+        assertEquals(order.getLines(), claims.get(1).getUpdateObject().get("$set", Document.class).get("lines"));
+        verify(inventoryGateway, never()).holdStock(any(), anyMap());
+    }
+
+    @Test
+    void updateOfAnOrderChangedConcurrentlyLeavesTheHoldAlone() {
+        when(orderRepository.findById("o1")).thenReturn(Optional.of(pendingOrder("o1", "a", 2)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Order.class))).thenReturn(null);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> orderService.updateOrder("o1", update("b")));
+
+        verify(inventoryGateway, never()).releaseHold(any());
+        verify(inventoryGateway, never()).holdStock(any(), anyMap());
+    }
+
+    @Test
+    void statusChangeOfAnOrderChangedConcurrentlyTouchesNoStock() {
+        when(orderRepository.findById("o1")).thenReturn(Optional.of(pendingOrder("o1", "a", 2)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Order.class))).thenReturn(null);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> orderService.updateOrderStatus("o1", "CONFIRMED"));
+
+        verify(inventoryGateway, never()).confirmHold(any());
+        verify(inventoryGateway, never()).adjustStock(any(), any(), any(), anyMap());
+        verify(salesRollupService, never()).recordConfirmed(anyList());
+    }
+
+    @Test
+    void confirmShortOfStockPutsTheOrderBackToPending() {
+        Order order = pendingOrder("o1", "a", 2);
+        when(orderRepository.findById("o1")).thenReturn(Optional.of(order));
+        when(inventoryGateway.confirmHold("o1")).thenReturn(false);
+        when(inventoryGateway.adjustStock(eq("o1:reduce"), any(), eq("o1"), anyMap())).thenReturn(List.of("a"));
+
+        assertThrows(InsufficientInventoryException.class, () -> orderService.updateOrderStatus("o1", "CONFIRMED"));
+
+        assertEquals(2, claims.size());
+        assertEquals(OrderStatus.CONFIRMED, claims.get(0).getUpdateObject().get("$set", Document.class).get("orderStatus"));
+        assertEquals(OrderStatus.PENDING, claims.get(1).getUpdateObject().get("$set", Document.class).get("orderStatus"));
+        verify(salesRollupService, never()).recordConfirmed(anyList());
+    }
+
+    @Test
+    void confirmClaimsTheOrderAtTheVersionThatWasRead() {
+        Order order = pendingOrder("o1", "a", 2);
+        order.setVersion(7L);
+        when(orderRepository.findById("o1")).thenReturn(Optional.of(order));
+        when(inventoryGateway.confirmHold("o1")).thenReturn(true);
+
+        Order confirmed = orderService.updateOrderStatus("o1", "CONFIRMED");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Order.class));
+        assertEquals(new Document("_id", "o1").append("orderStatus", OrderStatus.PENDING).append("version", 7L),
+                query.getValue().getQueryObject());
+        verify(salesRollupService).recordConfirmed(List.of(confirmed));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void failedUpdateDoesNotHoldForAnOrderWhoseHoldHadExpired() {
+        Order order = pendingOrder("o1", "a", 2);
+        when(orderRepository.findById("o1")).thenReturn(Optional.of(order));
+        when(inventoryGateway.releaseHold("o1")).thenReturn(false);
+        when(inventoryGateway.holdStock("o1", Map.of("b", 1))).thenReturn(List.of("b"));
+        products.set(1, product("b", 0));
+
+        assertThrows(InsufficientInventoryException.class, () -> orderService.updateOrder("o1", update("b")));
+
+        verify(inventoryGateway, never()).holdStock(eq("o1"), eq(Map.of("a", 2)));
+    }
+
+    @Test
+    void failureToRestoreTheOldHoldKeepsTheOriginalError() {
+        Order order = pendingOrder("o1", "a", 2);
+        when(orderRepository.findById("o1")).thenReturn(Optional.of(order));
+        when(inventoryGateway.releaseHold("o1")).thenReturn(true);
+        when(inventoryGateway.holdStock(eq("o1"), anyMap())).thenReturn(List.of("b"), List.of("a"));
+        products.set(1, product("b", 0));
+
+        InsufficientInventoryException error = assertThrows(InsufficientInventoryException.class,
+                () -> orderService.updateOrder("o1", update("b")));
+        assertEquals("Insufficient quantity for product b. Required: 1, Available: 0", error.getMessage());
+    }
+
+    @Test
+    void bulkCreateAcceptsOrdersWhileStockLasts() {
+        BulkOperations bulk = bulkInsert();
+        when(inventoryGateway.holdStockBatch(any(), anyMap())).thenReturn(List.of());
+
+        List<BulkOrderResult> results = orderService.createOrders("user",
+                List.of(request("a", 6), request("a", 6), request("b", 1)));
+
+        assertEquals(List.of(true, false, true), successes(results));
+        assertEquals("Insufficient quantity for products: [a]", results.get(1).getError());
+        verify(bulk).insert(argThat((List<?> orders) -> orders.size() == 2));
+        verify(inventoryGateway, never()).releaseHold(any());
+    }
+
+    @Test
+    void bulkCreateReleasesOnlyTheOrdersTheInsertRejected() {
+        BulkOperations bulk = bulkInsert();
+        when(inventoryGateway.holdStockBatch(any(), anyMap())).thenReturn(List.of());
+        BulkWriteError duplicate = new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1);
+        when(bulk.execute()).thenThrow(new BulkOperationException("insert failed", new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()), List.of(duplicate), null,
+                new ServerAddress(), Set.of())));
+
+        List<BulkOrderResult> results = orderService.createOrders("user",
+                List.of(request("a", 1), request("a", 1), request("b", 1)));
+
+        assertEquals(List.of(true, false, true), successes(results));
+        verify(inventoryGateway).releaseHold(inserted.get(1).getId());
+        verify(inventoryGateway, times(1)).releaseHold(any());
+    }
+
+    @Test
+    void bulkCreateLooksUpWhichOrdersWereStoredAfterAnUnknownFailure() {
+        BulkOperations bulk = bulkInsert();
+        when(inventoryGateway.holdStockBatch(any(), anyMap())).thenReturn(List.of());
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("connection reset"));
+        when(mongoTemplate.find(any(Query.class), eq(Order.class)))
+                .thenAnswer(invocation -> List.of(inserted.get(0)));
+
+        List<BulkOrderResult> results = orderService.createOrders("user", List.of(request("a", 1), request("b", 1)));
+
+        assertEquals(List.of(true, false), successes(results));
+        verify(inventoryGateway).releaseHold(inserted.get(1).getId());
+        verify(inventoryGateway, times(1)).releaseHold(any());
+    }
+
+    @Test
+    void bulkCreateKeepsTheHoldsWhenItCannotTellWhatWasStored() {
+        BulkOperations bulk = bulkInsert();
+        when(inventoryGateway.holdStockBatch(any(), anyMap())).thenReturn(List.of());
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("connection reset"));
+        when(mongoTemplate.find(any(Query.class), eq(Order.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+
+        List<BulkOrderResult> results = orderService.createOrders("user", List.of(request("a", 1), request("b", 1)));
+
+        assertEquals(List.of(false, false), successes(results));
+        verify(inventoryGateway, never()).releaseHold(any());
+    }
+
+    @Test
+    void bulkStatusOnlyReportsAndRollsUpTheOrdersItClaimed() {
+        Order first = pendingOrder("o1", "a", 1);
+        Order second = pendingOrder("o2", "b", 1);
+        when(orderRepository.findAllById(any())).thenReturn(List.of(first, second));
+        BulkOperations bulk = bulkUpdate();
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(idOnly("o1")));
+        when(inventoryGateway.confirmHolds(any(), any())).thenReturn(List.of("o1"));
+
+        List<BulkOrderResult> results = orderService.updateOrderStatuses(List.of("o1", "o2"), "CONFIRMED");
+
+        assertEquals(List.of(true, false), successes(results));
+        assertEquals("Order was changed concurrently", results.get(1).getError());
+        ArgumentCaptor<Query> claims = ArgumentCaptor.forClass(Query.class);
+        verify(bulk, times(2)).updateOne(claims.capture(), any(Update.class));
+        assertEquals(new Document("_id", "o1").append("orderStatus", OrderStatus.PENDING).append("version", 0L),
+                claims.getAllValues().get(0).getQueryObject());
+        verify(inventoryGateway).confirmHolds(any(), eq(Set.of("o1")));
+        verify(salesRollupService).recordConfirmed(List.of(first));
+        assertEquals(OrderStatus.CONFIRMED, first.getOrderStatus());
+    }
+
+    @Test
+    void bulkStatusPutsClaimedOrdersShortOfStockBackToPending() {
+        Order order = pendingOrder("o1", "a", 1);
+        when(orderRepository.findAllById(any())).thenReturn(List.of(order));
+        BulkOperations bulk = bulkUpdate();
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(idOnly("o1")));
+        when(inventoryGateway.confirmHolds(any(), any())).thenReturn(List.of());
+        when(inventoryGateway.adjustStock(any(), any(), any(), anyMap())).thenReturn(List.of("a"));
+
+        List<BulkOrderResult> results = orderService.updateOrderStatuses(List.of("o1"), "CONFIRMED");
+
+        assertEquals(List.of(false), successes(results));
+        ArgumentCaptor<Query> filters = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(filters.capture(), updates.capture());
+        assertEquals(new Document("_id", "o1").append("orderStatus", OrderStatus.CONFIRMED).append("version", 1L),
+                filters.getAllValues().get(1).getQueryObject());
+        assertEquals(OrderStatus.PENDING,
+                updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class).get("orderStatus"));
+        verify(salesRollupService).recordConfirmed(List.of());
+    }
+
+    @Test
+    void bulkStatusPutsClaimedOrdersBackWhenTheInventorySideFails() {
+        Order held = pendingOrder("o1", "a", 1);
+        Order unheld = pendingOrder("o2", "b", 1);
+        when(orderRepository.findAllById(any())).thenReturn(List.of(held, unheld));
+        BulkOperations bulk = bulkUpdate();
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(idOnly("o1"), idOnly("o2")));
+        when(inventoryGateway.confirmHolds(any(), any())).thenReturn(List.of("o1"));
+        when(inventoryGateway.adjustStock(any(), any(), any(), anyMap()))
+                .thenThrow(new DataAccessResourceFailureException("timed out"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> orderService.updateOrderStatuses(List.of("o1", "o2"), "CONFIRMED"));
+
+        // Two claims, then o2 alone goes back: o1's hold was confirmed, so it stays CONFIRMED
+        ArgumentCaptor<Query> filters = ArgumentCaptor.forClass(Query.class);
+        verify(bulk, times(3)).updateOne(filters.capture(), any(Update.class));
+        assertEquals(new Document("_id", "o2").append("orderStatus", OrderStatus.CONFIRMED).append("version", 1L),
+                filters.getAllValues().get(2).getQueryObject());
+        assertEquals(OrderStatus.PENDING, unheld.getOrderStatus());
+        assertEquals(OrderStatus.CONFIRMED, held.getOrderStatus());
+        verify(salesRollupService).recordConfirmed(List.of(held));
+    }
+
+    @Test
+    void bulkCancelPutsClaimedOrdersBackWhenReleasingFails() {
+        Order order = pendingOrder("o1", "a", 1);
+        when(orderRepository.findAllById(any())).thenReturn(List.of(order));
+        BulkOperations bulk = bulkUpdate();
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(idOnly("o1")));
+        when(inventoryGateway.releaseHolds(any(), any())).thenThrow(new DataAccessResourceFailureException("timed out"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> orderService.updateOrderStatuses(List.of("o1"), "CANCELLED"));
+
+        verify(bulk, times(2)).updateOne(any(Query.class), any(Update.class));
+        assertEquals(OrderStatus.PENDING, order.getOrderStatus());
+    }
+
+    @Test
+    void bulkCancelReleasesOnlyTheClaimedHolds() {
+        when(orderRepository.findAllById(any())).thenReturn(List.of(pendingOrder("o1", "a", 1), pendingOrder("o2", "b", 1)));
+        bulkUpdate();
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(idOnly("o2")));
+
+        List<BulkOrderResult> results = orderService.updateOrderStatuses(List.of("o1", "o2"), "CANCELLED");
+
+        assertEquals(List.of(false, true), successes(results));
+        verify(inventoryGateway).releaseHolds(any(), eq(Set.of("o2")));
+    }
+
+    @Test
+    void orderCursorRoundTripsToASeekOnDateAndId() {
+        Instant placed = Instant.parse("2024-05-01T10:15:30.123Z");
+        List<Order> page = new ArrayList<>();
+        for (String id : List.of("665f1f77bcf86cd799439013", "665f1f77bcf86cd799439012", "665f1f77bcf86cd799439011")) {
+            Order order = pendingOrder(id, "a", 1);
+            order.setOrderDate(placed);
+            page.add(order);
+        }
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(page, List.of());
+
+        CursorPage<Order> first = orderService.getOrdersPageByUserId("user", null, null, null, null, 2);
+        assertEquals(2, first.getItems().size());
+        orderService.getOrdersPageByUserId("user", null, null, null, first.getNextCursor(), 2);
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Order.class));
+        assertEquals(3, queries.getAllValues().get(0).getLimit());
+        Document seek = queries.getAllValues().get(1).getQueryObject().getList("$and", Document.class).get(1);
+        assertEquals(List.of(
+                new Document("orderDate", new Document("$lt", placed)),
+                new Document("orderDate", placed).append("_id", new Document("$lt", new ObjectId("665f1f77bcf86cd799439012")))),
+                seek.getList("$or", Document.class));
+    }
+
+    @Test
+    void lastOrderPageHasNoCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(pendingOrder("o1", "a", 1)));
+
+        assertNull(orderService.searchOrders(null, null, null, null, null, 2).getNextCursor());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        String notAnObjectId = Base64.getUrlEncoder().encodeToString("1714558530123|o1".getBytes(StandardCharsets.UTF_8));
+        String notADate = Base64.getUrlEncoder().encodeToString("soon|665f1f77bcf86cd799439012".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("%%%", notAnObjectId, notADate)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> orderService.searchOrders(null, null, null, null, cursor, 2));
+        }
+    }
+
+    static Product product(String id, int quantity) {
+        Product product = new Product("Product " + id, "Category", 5, quantity, "");
+        product.setId(id);
+        return product;
+    }
+
+    static Order pendingOrder(String orderId, String productId, int quantity) {
+        Order order = new Order("user", new ArrayList<>(List.of(new OrderLine(productId, quantity, 5))),
+                OrderStatus.PENDING, 5.0 * quantity, Instant.now());
+        order.setId(orderId);
+        order.setVersion(0L);
+        return order;
+    }
+
+    private BulkOperations bulkInsert() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenAnswer(invocation -> {
+            inserted.addAll(invocation.getArgument(0));
+            return bulk;
+        });
+        return bulk;
+    }
+
+    private BulkOperations bulkUpdate() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(bulk);
+        when(bulk.updateOne(any(Query.class), any(Update.class))).thenReturn(bulk);
+        return bulk;
+    }
+
+    private static Order idOnly(String orderId) {
+        Order order = new Order();
+        order.setId(orderId);
+        return order;
+    }
+
+    private static List<Boolean> successes(List<BulkOrderResult> results) {
+        return results.stream().map(BulkOrderResult::isSuccess).collect(Collectors.toList());
+    }
+
+    private static OrderRequest request(String productId, int quantity) {
+        OrderLineRequest line = new OrderLineRequest();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        OrderRequest request = new OrderRequest();
+        request.setLines(List.of(line));
+        request.setTotalPrice(5.0 * quantity);
+        return request;
+    }
+
+    private static OrderUpdateRequest update(String... productIds) {
+        OrderUpdateRequest request = new OrderUpdateRequest();
+        request.setProductIds(List.of(productIds));
+        request.setTotalPrice(5.0 * productIds.length);
+        return request;
+    }
+}
@@ -0,0 +1,79 @@
+package com.cloud_based.supply_chain.userservice.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.cloud_based.supply_chain.common.LatencyRecorder;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+// Per-request cost of authenticating a bearer token. "parse per claim" replays what
+// JwtRequestFilter did before tokens were verified once: extractEmail, extractUserId, extractRole,
+// then validateToken's extractEmail and isTokenExpired, each building a parser and checking the
+// HMAC again. "verify, cache miss" is the first request with a token, "verify, cache hit" every
+// later one.
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class JwtVerificationBenchmarkTest {
+
+    private static final String SECRET_KEY = "your_secret_key"; // Same key JwtUtil signs with
+
+    private static final int WARMUP = 20_000;
+
+    private static final int ITERATIONS = 100_000;
+
+    @Test
+    void compareTokenVerification() {
+        JwtUtil jwtUtil = new JwtUtil(10_000);
+        String token = jwtUtil.generateToken("user@example.com", "user-1", 1);
+
+        LatencyRecorder perClaim = run(() -> parsePerClaim(token));
+        LatencyRecorder cacheHit = run(() -> verifyOnce(jwtUtil, token));
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            tokens.add(jwtUtil.generateToken("user" + i + "@example.com", "user-" + i, 1));
+        }
+        JwtUtil cold = new JwtUtil(WARMUP + ITERATIONS);
+        int[] next = { 0 };
+        LatencyRecorder cacheMiss = run(() -> verifyOnce(cold, tokens.get(next[0]++)));
+
+        System.out.println(perClaim.summary("parse per claim (before)"));
+        System.out.println(cacheMiss.summary("verify, cache miss"));
+        System.out.println(cacheHit.summary("verify, cache hit"));
+    }
+
+    private static LatencyRecorder run(Runnable request) {
+        for (int i = 0; i < WARMUP; i++) {
+            request.run();
+        }
+        LatencyRecorder latencies = new LatencyRecorder(ITERATIONS);
+        for (int i = 0; i < ITERATIONS; i++) {
+            latencies.time(request);
+        }
+        return latencies;
+    }
+
+    private static void parsePerClaim(String token) {
+        String email = (String) claims(token).get("sub");
+        claims(token).get("userId");
+        claims(token).get("role");
+        boolean valid = claims(token).get("sub").equals(email) && !claims(token).getExpiration().before(new Date());
+        assertEquals(true, valid);
+    }
+
+    private static void verifyOnce(JwtUtil jwtUtil, String token) {
+        VerifiedToken verified = jwtUtil.verify(token);
+        assertEquals(false, verified.isExpired());
+    }
+
+    private static Claims claims(String token) {
+        return Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody();
+    }
+}
@@ -0,0 +1,86 @@
+package com.cloud_based.supply_chain.userservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cloud_based.supply_chain.userservice.model.User;
+import com.cloud_based.supply_chain.userservice.repository.UserRepository;
+
+class UserServiceTest {
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private UserRepository userRepository;
+
+    private CustomUserDetailsService userDetailsService;
+
+    private UserService userService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userDetailsService = new CustomUserDetailsService(100, 300);
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", userRepository);
+
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(userService, "userDetailsService", userDetailsService);
+
+        user = new User("user", "user@example.com", passwordEncoder.encode("old"), "555");
+        user.setRole(2);
+        when(userRepository.findByEmail("user@example.com")).thenAnswer(invocation -> Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void roleChangeIsSeenByTheCachedPrincipalSource() {
+        assertEquals("ROLE_USER", authority(userDetailsService.loadUserByEmailCached("user@example.com")));
+
+        userService.changeRole("user@example.com", 1);
+
+        assertEquals("ROLE_ADMIN", authority(userDetailsService.loadUserByEmailCached("user@example.com")));
+    }
+
+    @Test
+    void passwordChangeIsSeenByTheCachedPrincipalSource() {
+        userDetailsService.loadUserByEmailCached("user@example.com");
+
+        userService.changePassword("user@example.com", "old", "new");
+
+        assertTrue(passwordEncoder.matches("new", userDetailsService.loadUserByEmailCached("user@example.com").getPassword()));
+    }
+
+    @Test
+    void passwordChangeNeedsTheCurrentPassword() {
+        assertThrows(RuntimeException.class, () -> userService.changePassword("user@example.com", "wrong", "new"));
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void unknownRoleIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> userService.changeRole("user@example.com", 7));
+        verify(userRepository, never()).save(any());
+    }
+
+    private static String authority(UserDetails userDetails) {
+        return userDetails.getAuthorities().iterator().next().getAuthority();
+    }
+}